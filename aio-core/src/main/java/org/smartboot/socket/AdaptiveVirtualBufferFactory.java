@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: AdaptiveVirtualBufferFactory.java
+ * Date: 2022-10-25
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket;
+
+import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.VirtualBuffer;
+
+/**
+ * 根据会话近期的读取量自适应调整读缓冲区容量。
+ * <p>
+ * 读操作填满缓冲区时容量翻倍,连续多次读取量不足容量的四分之一时容量减半,调整范围介于 minCapacity 与 maxCapacity 之间。
+ * 小消息频繁交互的会话可借此减少内存占用,批量传输的会话则可减少读操作次数并避免 readBuffer overflow。
+ * </p>
+ * <p>
+ * 通过 {@link #newSessionFactory()} 为每个会话维护独立的容量状态,使用方式:
+ * <code>server.setReadBufferFactory(new AdaptiveVirtualBufferFactory(64, 1024, 64 * 1024))</code>
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/10/25
+ */
+public final class AdaptiveVirtualBufferFactory implements VirtualBufferFactory {
+    /**
+     * 连续多少次读取量不足时缩减容量
+     */
+    private static final int SHRINK_THRESHOLD = 4;
+    private final int minCapacity;
+    private final int maxCapacity;
+    /**
+     * 当前会话读缓冲区的目标容量
+     */
+    private int capacity;
+    /**
+     * 连续读取量不足的次数
+     */
+    private int shrinkCount;
+
+    /**
+     * @param minCapacity     最小容量
+     * @param initialCapacity 初始容量
+     * @param maxCapacity     最大容量
+     */
+    public AdaptiveVirtualBufferFactory(int minCapacity, int initialCapacity, int maxCapacity) {
+        if (minCapacity <= 0 || initialCapacity < minCapacity || maxCapacity < initialCapacity) {
+            throw new IllegalArgumentException("invalid capacity, min:" + minCapacity + " initial:" + initialCapacity + " max:" + maxCapacity);
+        }
+        this.minCapacity = minCapacity;
+        this.maxCapacity = maxCapacity;
+        this.capacity = initialCapacity;
+    }
+
+    @Override
+    public VirtualBuffer newBuffer(BufferPage bufferPage) {
+        return bufferPage.allocate(capacity);
+    }
+
+    @Override
+    public VirtualBufferFactory newSessionFactory() {
+        return new AdaptiveVirtualBufferFactory(minCapacity, capacity, maxCapacity);
+    }
+
+    @Override
+    public int nextCapacity(int bufferedSize, int capacity) {
+        if (bufferedSize >= capacity) {
+            shrinkCount = 0;
+            this.capacity = capacity >= maxCapacity >> 1 ? maxCapacity : capacity << 1;
+        } else if (bufferedSize <= capacity >> 2 && capacity > minCapacity) {
+            if (++shrinkCount >= SHRINK_THRESHOLD) {
+                shrinkCount = 0;
+                this.capacity = Math.max(minCapacity, capacity >> 1);
+            }
+        } else {
+            shrinkCount = 0;
+        }
+        return this.capacity;
+    }
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: Encoder.java
+ * Date: 2022-10-29
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket;
+
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.EncodeBuffer;
+
+/**
+ * <p>
+ * 消息编码器,与{@link Protocol}相对应。
+ * </p>
+ * <p>
+ * 将实现类注册至服务启动类{@link org.smartboot.socket.transport.AioQuickClient}、{@link org.smartboot.socket.transport.AioQuickServer}后,
+ * 即可通过{@link AioSession#writeObject(Object)}输出业务消息,消息直接序列化至内存池中的缓冲区,无需构造中间数组。
+ * </p>
+ * <b>
+ * 注意：框架本身的所有Socket链路复用同一个Encoder，请勿在其实现类的成员变量中存储特定链路的数据。
+ * </b>
+ *
+ * @param <T> 消息对象实体类型
+ * @author 三刀
+ * @version V1.0 , 2022/10/29
+ */
+public interface Encoder<T> {
+    /**
+     * 将业务消息编码至输出缓冲区
+     *
+     * @param msg     待编码的消息
+     * @param buffer  编码缓冲区,容量不足时自动扩容
+     * @param session 本次输出的session
+     */
+    void encode(T msg, EncodeBuffer buffer, AioSession session);
+}
@@ -83,4 +83,20 @@ public enum StateMachineEnum {
      */
     ACCEPT_EXCEPTION,
 
+    /**
+     * 输出缓冲区待输出的数据超过高水位线,会话进入不可写状态。
+     * <p>业务应暂停向该会话输出数据,直至触发{@link StateMachineEnum#WRITABLE}</p>
+     */
+    UNWRITABLE,
+
+    /**
+     * 输出缓冲区待输出的数据回落至低水位线,会话恢复可写状态。
+     */
+    WRITABLE,
+    /**
+     * 对端消费过慢,会话输出积压超出限制。
+     * <p>由慢消费者检测插件触发,积压指标可通过{@link org.smartboot.socket.transport.WriteBuffer#getPendingBytes()}等方法获取</p>
+     */
+    SLOW_CONSUMER,
+
 }
@@ -18,4 +18,26 @@ import org.smartboot.socket.buffer.VirtualBuffer;
  */
 public interface VirtualBufferFactory {
     VirtualBuffer newBuffer(BufferPage bufferPage);
+
+    /**
+     * 为新建立的会话提供读缓冲区工厂,返回的工厂仅由该会话使用,可用于维护会话级别的状态。
+     * <p>默认所有会话共享当前工厂</p>
+     *
+     * @return 会话专属的工厂
+     */
+    default VirtualBufferFactory newSessionFactory() {
+        return this;
+    }
+
+    /**
+     * 每次读操作完成后回调,计算读缓冲区的目标容量。
+     * <p>返回值与当前容量不一致时,会话将在读缓冲区中的残留数据可被容纳时重新分配读缓冲区</p>
+     *
+     * @param bufferedSize 本次读操作后读缓冲区中的数据量
+     * @param capacity     读缓冲区当前容量
+     * @return 读缓冲区的目标容量
+     */
+    default int nextCapacity(int bufferedSize, int capacity) {
+        return capacity;
+    }
 }
@@ -13,7 +13,10 @@ import java.io.IOException;
 import java.nio.channels.AsynchronousChannelGroup;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
-import java.nio.channels.spi.AsynchronousChannelProvider;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -31,6 +34,22 @@ class EnhanceAsynchronousChannelGroup extends AsynchronousChannelGroup {
      * 递归回调次数上限
      */
     public static final int MAX_INVOKER = 8;
+    /**
+     * 忙轮询模式下两次 selectNow 之间的最大自旋次数
+     */
+    private static final int MAX_SPIN_BACKOFF = 64;
+    /**
+     * 繁忙度采样周期
+     */
+    private static final long BUSY_SAMPLE_PERIOD = TimeUnit.MILLISECONDS.toNanos(100);
+    /**
+     * 繁忙度EWMA的平滑系数
+     */
+    private static final double BUSY_EWMA_ALPHA = 0.3;
+    /**
+     * 连接迁移的检测周期
+     */
+    private static final long REBALANCE_PERIOD = TimeUnit.SECONDS.toNanos(1);
 
     /**
      * 读回调处理线程池,可用于业务处理
@@ -48,10 +67,17 @@ class EnhanceAsynchronousChannelGroup extends AsynchronousChannelGroup {
      * read工作组
      */
     private final Worker[] readWorkers;
+    /**
+     * read 线程分配策略
+     */
+    private final WorkerSelectionStrategy workerSelectionStrategy;
+    /**
+     * 触发连接迁移的繁忙度阈值,0:不启用
+     */
+    private final double rebalanceThreshold;
     /**
      * 线程池分配索引
      */
-    private final AtomicInteger readIndex = new AtomicInteger(0);
     private final AtomicInteger commonIndex = new AtomicInteger(0);
 
     /**
@@ -64,13 +90,15 @@ class EnhanceAsynchronousChannelGroup extends AsynchronousChannelGroup {
      *
      * @param provider The asynchronous channel provider for this group
      */
-    protected EnhanceAsynchronousChannelGroup(AsynchronousChannelProvider provider, ExecutorService readExecutorService, int threadNum) throws IOException {
+    protected EnhanceAsynchronousChannelGroup(EnhanceAsynchronousChannelProvider provider, ExecutorService readExecutorService, int threadNum) throws IOException {
         super(provider);
         //init threadPool for read
         this.readExecutorService = readExecutorService;
+        this.workerSelectionStrategy = provider.getWorkerSelectionStrategy();
+        this.rebalanceThreshold = threadNum > 1 ? provider.getRebalanceThreshold() : 0;
         this.readWorkers = new Worker[threadNum];
         for (int i = 0; i < threadNum; i++) {
-            readWorkers[i] = new Worker(Selector.open(), selectionKey -> {
+            readWorkers[i] = new Worker(i, Selector.open(), provider.getBusyPollNanos(), selectionKey -> {
                 EnhanceAsynchronousSocketChannel asynchronousSocketChannel = (EnhanceAsynchronousSocketChannel) selectionKey.attachment();
                 asynchronousSocketChannel.doRead(true);
             });
@@ -83,7 +111,7 @@ class EnhanceAsynchronousChannelGroup extends AsynchronousChannelGroup {
         this.commonWorkers = new Worker[commonThreadNum];
 
         for (int i = 0; i < commonThreadNum; i++) {
-            commonWorkers[i] = new Worker(Selector.open(), selectionKey -> {
+            commonWorkers[i] = new Worker(i, Selector.open(), 0, selectionKey -> {
                 if (selectionKey.isWritable()) {
                     EnhanceAsynchronousSocketChannel asynchronousSocketChannel = (EnhanceAsynchronousSocketChannel) selectionKey.attachment();
                     //直接调用interestOps的效果比 removeOps(selectionKey, SelectionKey.OP_WRITE) 更好
@@ -123,8 +151,22 @@ class EnhanceAsynchronousChannelGroup extends AsynchronousChannelGroup {
         }
     }
 
-    public Worker getReadWorker() {
-        return readWorkers[(readIndex.getAndIncrement() & Integer.MAX_VALUE) % readWorkers.length];
+    /**
+     * 按分配策略为新连接选择 read 线程
+     *
+     * @param channel 新连接
+     */
+    public Worker getReadWorker(SocketChannel channel) throws IOException {
+        Worker worker = readWorkers[workerSelectionStrategy.select(readWorkers, channel.getRemoteAddress())];
+        worker.connectionCount.incrementAndGet();
+        return worker;
+    }
+
+    /**
+     * 获取 read 线程组的负载信息
+     */
+    WorkerLoad[] getReadWorkerLoads() {
+        return Arrays.copyOf(readWorkers, readWorkers.length, WorkerLoad[].class);
     }
 
     public Worker getCommonWorker() {
@@ -171,18 +213,85 @@ class EnhanceAsynchronousChannelGroup extends AsynchronousChannelGroup {
         }
     }
 
-    class Worker implements Runnable {
+    class Worker implements Runnable, WorkerLoad {
         /**
          * 当前Worker绑定的Selector
          */
         final Selector selector;
+        /**
+         * 当前分配至该线程的连接数
+         */
+        final AtomicInteger connectionCount = new AtomicInteger(0);
+        /**
+         * 线程索引
+         */
+        private final int index;
         private final Consumer<SelectionKey> consumer;
         private final ConcurrentLinkedQueue<Consumer<Selector>> consumers = new ConcurrentLinkedQueue<>();
+        /**
+         * 定时任务队列,仅由Worker线程访问
+         */
+        private final PriorityQueue<ScheduledTask> scheduledTasks = new PriorityQueue<>();
+        /**
+         * 主动让出执行权的任务,在下一轮 select 处理完就绪事件后执行,仅由Worker线程访问
+         */
+        private final ArrayDeque<Runnable> deferredTasks = new ArrayDeque<>();
+        /**
+         * 定时任务序号,保证相同触发时间的任务按提交顺序执行
+         */
+        private long scheduledSequence;
+        /**
+         * 忙轮询时长(纳秒),0:采用阻塞式select
+         */
+        private final long busyPollNanos;
         int invoker = 0;
         private Thread workerThread;
+        /**
+         * 本轮空闲自旋的起始时间,0:未处于自旋状态
+         */
+        private long spinStartTime;
+        /**
+         * 两次 selectNow 之间的自旋次数,按指数退避增长
+         */
+        private int spinBackoff = 1;
+        /**
+         * 累计读取字节数,仅用于统计,允许存在误差
+         */
+        long readBytes;
+        /**
+         * 本轮循环中首个事件的触发时间,0:暂无事件触发
+         */
+        private long activeTime;
+        /**
+         * 当前采样周期内的繁忙耗时、总耗时
+         */
+        private long busyNanos, totalNanos;
+        /**
+         * 繁忙度(EWMA)
+         */
+        private volatile double busyRatio;
+        /**
+         * 最近一次完成采样的时间
+         */
+        private volatile long lastSampleTime = System.nanoTime();
+        /**
+         * 是否阻塞于select
+         */
+        private volatile boolean selecting;
+        /**
+         * 阻塞中的select是否设置了超时,以及超时返回的时间点
+         */
+        private volatile boolean timedSelect;
+        private volatile long selectDeadline;
+        /**
+         * 最近一次连接迁移检测的时间
+         */
+        private long lastRebalanceTime = System.nanoTime();
 
-        Worker(Selector selector, Consumer<SelectionKey> consumer) {
+        Worker(int index, Selector selector, long busyPollNanos, Consumer<SelectionKey> consumer) {
+            this.index = index;
             this.selector = selector;
+            this.busyPollNanos = busyPollNanos;
             this.consumer = consumer;
         }
 
@@ -191,7 +300,39 @@ class EnhanceAsynchronousChannelGroup extends AsynchronousChannelGroup {
          */
         final void addRegister(Consumer<Selector> register) {
             consumers.offer(register);
-            selector.wakeup();
+            //Worker线程会在下一轮select之前执行注册任务,无需wakeup
+            if (workerThread != Thread.currentThread()) {
+                selector.wakeup();
+            }
+        }
+
+        /**
+         * 提交定时任务,任务将在Worker线程中执行
+         *
+         * @param task       待执行任务
+         * @param delayNanos 延迟时长(纳秒)
+         */
+        final void schedule(Runnable task, long delayNanos) {
+            long deadline = System.nanoTime() + delayNanos;
+            if (workerThread == Thread.currentThread()) {
+                scheduledTasks.offer(new ScheduledTask(deadline, scheduledSequence++, task));
+                return;
+            }
+            consumers.offer(selector -> scheduledTasks.offer(new ScheduledTask(deadline, scheduledSequence++, task)));
+            //阻塞中的select会在该任务到期前返回时无需wakeup,select前会再次检查注册任务
+            if (selecting && (!timedSelect || deadline - selectDeadline < 0)) {
+                selector.wakeup();
+            }
+        }
+
+        /**
+         * 延后执行任务,必须由Worker线程调用。
+         * <p>任务在下一轮 select 处理完就绪事件后执行,执行期间再次延后的任务顺延至再下一轮,保证同线程中其他就绪连接得到处理</p>
+         *
+         * @param task 待执行任务
+         */
+        final void defer(Runnable task) {
+            deferredTasks.offer(task);
         }
 
         public final Thread getWorkerThread() {
@@ -203,16 +344,33 @@ class EnhanceAsynchronousChannelGroup extends AsynchronousChannelGroup {
             workerThread = Thread.currentThread();
             // 优先获取SelectionKey,若无关注事件触发则阻塞在selector.select(),减少select被调用次数
             Consumer<SelectionKey> action = selectionKey -> {
+                if (activeTime == 0) {
+                    activeTime = System.nanoTime();
+                }
                 invoker = 0;
                 consumer.accept(selectionKey);
             };
             try {
                 while (running) {
+                    long loopStartTime = System.nanoTime();
                     Consumer<Selector> selectorConsumer;
                     while ((selectorConsumer = consumers.poll()) != null) {
                         selectorConsumer.accept(selector);
+                        activeTime = loopStartTime;
+                    }
+                    runScheduledTasks(loopStartTime);
+                    //注册任务的耗时计入繁忙耗时
+                    if (activeTime != 0) {
+                        busyNanos += System.nanoTime() - activeTime;
+                        activeTime = 0;
+                    }
+                    if (busyPollNanos > 0) {
+                        busyPoll(action);
+                    } else {
+                        select(action);
                     }
-                    selector.select(action);
+                    runDeferredTasks();
+                    sample(loopStartTime);
                 }
             } catch (Exception e) {
                 e.printStackTrace();
@@ -224,5 +382,235 @@ class EnhanceAsynchronousChannelGroup extends AsynchronousChannelGroup {
                 }
             }
         }
+
+        /**
+         * 忙轮询：空闲期间以 selectNow 自旋，自旋间隔指数退避，超出忙轮询时长后转入阻塞式 select
+         */
+        private void busyPoll(Consumer<SelectionKey> action) throws IOException {
+            if (selector.selectNow(action) > 0) {
+                spinStartTime = 0;
+                spinBackoff = 1;
+                return;
+            }
+            long now = System.nanoTime();
+            if (spinStartTime == 0) {
+                spinStartTime = now;
+            }
+            if (now - spinStartTime < busyPollNanos) {
+                for (int i = 0; i < spinBackoff; i++) {
+                    Thread.onSpinWait();
+                }
+                if (spinBackoff < MAX_SPIN_BACKOFF) {
+                    spinBackoff <<= 1;
+                }
+                return;
+            }
+            //持续空闲,释放CPU资源。selectNow 会清除 wakeup 标记,阻塞前需确认无待执行的注册任务
+            spinStartTime = 0;
+            spinBackoff = 1;
+            if (consumers.isEmpty() && deferredTasks.isEmpty()) {
+                select(action);
+            }
+        }
+
+        /**
+         * 阻塞式select,存在定时任务时以最近的触发时间作为超时时长。
+         * <p>select 超时精度为毫秒,超时时长向下取整,不足 1 毫秒的剩余时长以 selectNow 自旋等待,保证定时任务不晚于触发时间执行</p>
+         */
+        private void select(Consumer<SelectionKey> action) throws IOException {
+            //存在延后执行的任务,仅处理当前已就绪的事件
+            if (!deferredTasks.isEmpty()) {
+                selector.selectNow(action);
+                return;
+            }
+            ScheduledTask task = scheduledTasks.peek();
+            long timeout = 0;
+            if (task != null) {
+                long now = System.nanoTime();
+                timeout = TimeUnit.NANOSECONDS.toMillis(task.deadline - now);
+                if (timeout <= 0) {
+                    selector.selectNow(action);
+                    return;
+                }
+                selectDeadline = now + TimeUnit.MILLISECONDS.toNanos(timeout);
+            }
+            timedSelect = task != null;
+            selecting = true;
+            //与 schedule 配合:此处之后提交的定时任务,若未触发 wakeup,必然已被当前检查发现
+            if (!consumers.isEmpty()) {
+                selecting = false;
+                selector.selectNow(action);
+                return;
+            }
+            if (task == null) {
+                selector.select(action);
+            } else {
+                selector.select(action, timeout);
+            }
+            selecting = false;
+        }
+
+        /**
+         * 执行本轮 select 之前延后的任务,执行期间新增的延后任务留待下一轮
+         */
+        private void runDeferredTasks() {
+            for (int i = deferredTasks.size(); i > 0; i--) {
+                Runnable task = deferredTasks.poll();
+                if (activeTime == 0) {
+                    activeTime = System.nanoTime();
+                }
+                //与就绪事件一致,每个任务独立计算递归回调次数
+                invoker = 0;
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        /**
+         * 执行已到期的定时任务
+         */
+        private void runScheduledTasks(long now) {
+            ScheduledTask task;
+            while ((task = scheduledTasks.peek()) != null && task.deadline - now <= 0) {
+                scheduledTasks.poll();
+                activeTime = now;
+                try {
+                    task.task.run();
+                } catch (Throwable e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        /**
+         * 统计本轮循环的繁忙耗时,每个采样周期更新一次繁忙度
+         */
+        private void sample(long loopStartTime) {
+            long now = System.nanoTime();
+            if (activeTime != 0) {
+                busyNanos += now - activeTime;
+                activeTime = 0;
+            }
+            totalNanos += now - loopStartTime;
+            if (totalNanos < BUSY_SAMPLE_PERIOD) {
+                return;
+            }
+            double ratio = Math.min(1, (double) busyNanos / totalNanos);
+            busyRatio += BUSY_EWMA_ALPHA * (ratio - busyRatio);
+            busyNanos = 0;
+            totalNanos = 0;
+            lastSampleTime = now;
+            if (rebalanceThreshold > 0 && readWorkers[index] == this && now - lastRebalanceTime >= REBALANCE_PERIOD) {
+                lastRebalanceTime = now;
+                rebalance();
+            }
+        }
+
+        /**
+         * 当前线程过于繁忙时,将部分连接迁移至最空闲的 read 线程。
+         * <p>
+         * 按统计窗口内的读取字节数估算各连接占用的繁忙度,选取迁移后不会使目标线程比当前线程更繁忙的最大流量连接,
+         * 避免连接在线程间来回迁移。若单个连接独占了大部分流量,迁移只会转移热点,此时保留该连接而迁出其余连接。
+         * </p>
+         */
+        private void rebalance() {
+            Worker target = this;
+            if (busyRatio > rebalanceThreshold && selector.keys().size() > 1) {
+                for (Worker worker : readWorkers) {
+                    if (worker.getBusyRatio() < target.getBusyRatio()) {
+                        target = worker;
+                    }
+                }
+            }
+            long totalBytes = 0;
+            for (SelectionKey key : selector.keys()) {
+                totalBytes += ((EnhanceAsynchronousSocketChannel) key.attachment()).windowReadBytes;
+            }
+            EnhanceAsynchronousSocketChannel candidate = null;
+            double targetRatio = target.getBusyRatio();
+            if (target != this && targetRatio < rebalanceThreshold && totalBytes > 0) {
+                //迁移后需满足: targetRatio + moved < busyRatio - moved
+                long limit = (long) (totalBytes * (busyRatio - targetRatio) / (2 * busyRatio));
+                long maxBytes = 0;
+                for (SelectionKey key : selector.keys()) {
+                    EnhanceAsynchronousSocketChannel channel = (EnhanceAsynchronousSocketChannel) key.attachment();
+                    if (key.isValid() && channel.windowReadBytes > maxBytes && channel.windowReadBytes < limit) {
+                        maxBytes = channel.windowReadBytes;
+                        candidate = channel;
+                    }
+                }
+            }
+            //开启新的统计窗口
+            for (SelectionKey key : selector.keys()) {
+                ((EnhanceAsynchronousSocketChannel) key.attachment()).windowReadBytes = 0;
+            }
+            if (candidate != null) {
+                candidate.migrate(target);
+            }
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public int getConnectionCount() {
+            return connectionCount.get();
+        }
+
+        @Override
+        public double getBusyRatio() {
+            double ratio = busyRatio;
+            long idlePeriods = (System.nanoTime() - lastSampleTime) / BUSY_SAMPLE_PERIOD;
+            //长时间阻塞于select,说明该线程处于空闲状态,按空闲周期衰减
+            if (selecting && idlePeriods > 1) {
+                ratio *= Math.pow(1 - BUSY_EWMA_ALPHA, idlePeriods - 1);
+            }
+            return ratio;
+        }
+
+        @Override
+        public long getReadBytes() {
+            return readBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "Worker{index=" + index + ", connectionCount=" + connectionCount + ", busyRatio=" + getBusyRatio() + ", readBytes=" + readBytes + '}';
+        }
+    }
+
+    /**
+     * 定时任务
+     */
+    private static final class ScheduledTask implements Comparable<ScheduledTask> {
+        /**
+         * 触发时间
+         */
+        private final long deadline;
+        /**
+         * 提交序号
+         */
+        private final long sequence;
+        private final Runnable task;
+
+        ScheduledTask(long deadline, long sequence, Runnable task) {
+            this.deadline = deadline;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask o) {
+            long diff = deadline - o.deadline;
+            if (diff != 0) {
+                return diff < 0 ? -1 : 1;
+            }
+            return Long.compare(sequence, o.sequence);
+        }
     }
 }
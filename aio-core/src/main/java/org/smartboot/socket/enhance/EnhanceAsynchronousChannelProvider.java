@@ -38,11 +38,91 @@ public final class EnhanceAsynchronousChannelProvider extends AsynchronousChanne
      * 低内存模式
      */
     private final boolean lowMemory;
+    /**
+     * read 线程空闲时忙轮询的时长(纳秒),0:不启用忙轮询
+     */
+    private long busyPollNanos;
+    /**
+     * read 线程分配策略
+     */
+    private WorkerSelectionStrategy workerSelectionStrategy;
+    /**
+     * 触发连接迁移的 read 线程繁忙度阈值,0:不启用
+     */
+    private double rebalanceThreshold;
 
     public EnhanceAsynchronousChannelProvider(boolean lowMemory) {
         this.lowMemory = lowMemory;
     }
 
+    /**
+     * 启用 read 线程的忙轮询模式。
+     * <p>
+     * read 线程在空闲期间先以 selectNow 自旋轮询，自旋间隔按指数退避，超过 busyPoll 时长仍无事件就绪再转入阻塞式 select，
+     * 以有限的 CPU 开销换取更低的唤醒延迟。
+     * </p>
+     *
+     * @param busyPoll 忙轮询时长,小于等于0则不启用
+     * @param unit     时间单位
+     * @return 当前Provider对象
+     */
+    public EnhanceAsynchronousChannelProvider setBusyPoll(long busyPoll, TimeUnit unit) {
+        this.busyPollNanos = busyPoll > 0 ? unit.toNanos(busyPoll) : 0;
+        return this;
+    }
+
+    long getBusyPollNanos() {
+        return busyPollNanos;
+    }
+
+    /**
+     * 设置新连接的 read 线程分配策略,默认为轮询分配
+     *
+     * @param workerSelectionStrategy 分配策略
+     * @return 当前Provider对象
+     * @see WorkerSelectionStrategy
+     */
+    public EnhanceAsynchronousChannelProvider setWorkerSelectionStrategy(WorkerSelectionStrategy workerSelectionStrategy) {
+        this.workerSelectionStrategy = workerSelectionStrategy;
+        return this;
+    }
+
+    WorkerSelectionStrategy getWorkerSelectionStrategy() {
+        return workerSelectionStrategy == null ? WorkerSelectionStrategy.roundRobin() : workerSelectionStrategy;
+    }
+
+    /**
+     * 启用 read 线程间的连接自动迁移。
+     * <p>
+     * read 线程的繁忙度超过阈值时，会在等待数据到达的间隙将其中流量较大的连接迁移至最空闲的 read 线程。
+     * 迁移仅改变连接的 read 事件注册位置，未读取的数据仍保留在内核缓冲区中，不会丢失。
+     * </p>
+     *
+     * @param rebalanceThreshold 繁忙度阈值,取值范围:(0,1]。小于等于0则不启用
+     * @return 当前Provider对象
+     */
+    public EnhanceAsynchronousChannelProvider setRebalanceThreshold(double rebalanceThreshold) {
+        this.rebalanceThreshold = Math.max(0, rebalanceThreshold);
+        return this;
+    }
+
+    double getRebalanceThreshold() {
+        return rebalanceThreshold;
+    }
+
+    /**
+     * 获取线程组中各 read 线程的负载信息
+     *
+     * @param group 线程组
+     * @return 负载信息,非 smart-socket 线程组则返回空数组
+     */
+    public static WorkerLoad[] getReadWorkerLoads(AsynchronousChannelGroup group) {
+        if (group instanceof EnhanceAsynchronousChannelGroup) {
+            return ((EnhanceAsynchronousChannelGroup) group).getReadWorkerLoads();
+        }
+        return new WorkerLoad[0];
+    }
+
     @Override
     public AsynchronousChannelGroup openAsynchronousChannelGroup(int nThreads, ThreadFactory threadFactory) throws IOException {
         return new EnhanceAsynchronousChannelGroup(this, new ThreadPoolExecutor(nThreads, nThreads,
@@ -9,6 +9,7 @@
 
 package org.smartboot.socket.enhance;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.net.SocketOption;
@@ -18,6 +19,7 @@ import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.CompletionHandler;
 import java.nio.channels.ConnectionPendingException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadPendingException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ShutdownChannelGroupException;
@@ -33,7 +35,7 @@ import java.util.concurrent.TimeUnit;
  * @author 三刀
  * @version V1.0 , 2018/5/24
  */
-final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
+public final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
     /**
      * 实际的Socket通道
      */
@@ -43,9 +45,9 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
      */
     private final EnhanceAsynchronousChannelGroup group;
     /**
-     * 处理 read 事件的线程资源
+     * 处理 read 事件的线程资源,连接迁移后会发生变化
      */
-    private final EnhanceAsynchronousChannelGroup.Worker readWorker;
+    private volatile EnhanceAsynchronousChannelGroup.Worker readWorker;
     /**
      * 处理 write 事件的线程资源
      */
@@ -59,6 +61,11 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
      * 存放待输出数据的缓冲区
      */
     private ByteBuffer writeBuffer;
+    /**
+     * 待输出的文件,以及文件中待输出的起始位置、字节数
+     */
+    private FileChannel transferFile;
+    private long transferPosition, transferCount;
 
     /**
      * read 回调事件处理器
@@ -100,6 +107,14 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
      */
     private boolean connectionPending;
     private int writeInvoker;
+    /**
+     * 是否已释放 read 线程的连接计数
+     */
+    private boolean released;
+    /**
+     * 当前统计窗口内读取的字节数,用于连接迁移时识别热点连接
+     */
+    long windowReadBytes;
 
     private final boolean lowMemory;
 
@@ -107,7 +122,7 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
         super(group.provider());
         this.group = group;
         this.channel = channel;
-        readWorker = group.getReadWorker();
+        readWorker = group.getReadWorker(channel);
         commonWorker = group.getCommonWorker();
         this.lowMemory = lowMemory;
     }
@@ -122,6 +137,12 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
         } catch (IOException e) {
             exception = e;
         }
+        synchronized (this) {
+            if (!released) {
+                released = true;
+                readWorker.connectionCount.decrementAndGet();
+            }
+        }
         if (readSelectionKey != null) {
             readSelectionKey.cancel();
             readSelectionKey = null;
@@ -251,6 +272,34 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
         doWrite();
     }
 
+    /**
+     * 通过 {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)} 将文件内容直接输出至底层通道,避免数据拷贝至用户态。
+     * <p>与 write 相同,单次回调的结果为本次输出的字节数,剩余部分需再次调用该方法</p>
+     *
+     * @param file     待输出的文件
+     * @param position 文件中的起始位置
+     * @param count    输出的字节数,超出文件末尾的部分将被忽略
+     */
+    @SuppressWarnings("unchecked")
+    public <A> void transferFrom(FileChannel file, long position, long count, A attachment, CompletionHandler<Long, ? super A> handler) {
+        if (writePending) {
+            throw new WritePendingException();
+        }
+        try {
+            count = Math.max(0, Math.min(count, file.size() - position));
+        } catch (IOException e) {
+            handler.failed(e, attachment);
+            return;
+        }
+        writePending = true;
+        this.transferFile = file;
+        this.transferPosition = position;
+        this.transferCount = count;
+        this.writeAttachment = attachment;
+        this.writeCompletionHandler = (CompletionHandler<Number, Object>) (CompletionHandler<?, ?>) handler;
+        doWrite();
+    }
+
     @Override
     public Future<Integer> write(ByteBuffer src) {
         throw new UnsupportedOperationException();
@@ -328,6 +377,10 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
             if (directRead) {
                 readSize = channel.read(readBuffer);
                 hasRemain = readBuffer.hasRemaining();
+                if (readSize > 0) {
+                    readWorker.readBytes += readSize;
+                    windowReadBytes += readSize;
+                }
             }
 
             //注册至异步线程
@@ -384,6 +437,92 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
         }
     }
 
+    /**
+     * 将任务提交至当前连接的 read 线程执行。
+     * <p>若执行前连接已迁移至其他 read 线程,任务将转交至新的线程执行</p>
+     *
+     * @param task 待执行任务
+     */
+    public void execute(Runnable task) {
+        EnhanceAsynchronousChannelGroup.Worker worker = readWorker;
+        worker.addRegister(selector -> runOrForward(worker, task));
+    }
+
+    /**
+     * 让出 read 线程,待同线程中其他就绪的连接处理完毕后再执行任务。
+     * <p>非 read 线程调用时等同于 {@link #execute(Runnable)}</p>
+     *
+     * @param task 待执行任务
+     */
+    public void yieldTask(Runnable task) {
+        EnhanceAsynchronousChannelGroup.Worker worker = readWorker;
+        if (Thread.currentThread() == worker.getWorkerThread()) {
+            worker.defer(() -> runOrForward(worker, task));
+        } else {
+            execute(task);
+        }
+    }
+
+    /**
+     * 将定时任务提交至当前连接的 read 线程,到期后执行。
+     * <p>若执行前连接已迁移至其他 read 线程,任务将转交至新的线程执行</p>
+     *
+     * @param task  待执行任务
+     * @param delay 延迟时长
+     * @param unit  时间单位
+     */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        EnhanceAsynchronousChannelGroup.Worker worker = readWorker;
+        worker.schedule(() -> runOrForward(worker, task), unit.toNanos(delay));
+    }
+
+    private void runOrForward(EnhanceAsynchronousChannelGroup.Worker worker, Runnable task) {
+        if (worker != readWorker) {
+            execute(task);
+            return;
+        }
+        try {
+            task.run();
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 将 read 事件迁移至目标线程,必须由当前 read 线程调用。
+     * <p>仅在等待数据到达的间隙执行迁移,尚未读取的数据仍保留在内核缓冲区中,由目标线程继续读取</p>
+     *
+     * @param target 目标 read 线程
+     * @return 是否迁移成功
+     */
+    boolean migrate(EnhanceAsynchronousChannelGroup.Worker target) {
+        EnhanceAsynchronousChannelGroup.Worker source = readWorker;
+        SelectionKey key = readSelectionKey;
+        //仅迁移处于等待可读状态的连接,其余状态下 readSelectionKey 可能被其他线程操作
+        if (target == source || !readPending || readFuture != null || key == null || !key.isValid() || (key.interestOps() & SelectionKey.OP_READ) == 0) {
+            return false;
+        }
+        synchronized (this) {
+            if (released) {
+                return false;
+            }
+            source.connectionCount.decrementAndGet();
+            target.connectionCount.incrementAndGet();
+            readWorker = target;
+        }
+        key.cancel();
+        readSelectionKey = null;
+        windowReadBytes = 0;
+        target.addRegister(selector -> {
+            try {
+                readSelectionKey = channel.register(selector, SelectionKey.OP_READ, EnhanceAsynchronousSocketChannel.this);
+            } catch (ClosedChannelException e) {
+                readCompletionHandler.failed(e, readAttachment);
+            }
+        });
+        return true;
+    }
+
     private void resetRead() {
         readPending = false;
         readFuture = null;
@@ -401,11 +540,20 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
             } else if (readWorker.getWorkerThread() != Thread.currentThread()) {
                 invoker = ++writeInvoker;
             }
-            int writeSize = 0;
+            long writeSize = 0;
             boolean hasRemain = true;
             if (invoker < EnhanceAsynchronousChannelGroup.MAX_INVOKER) {
-                writeSize = channel.write(writeBuffer);
-                hasRemain = writeBuffer.hasRemaining();
+                if (transferFile == null) {
+                    writeSize = channel.write(writeBuffer);
+                    hasRemain = writeBuffer.hasRemaining();
+                } else {
+                    writeSize = transferFile.transferTo(transferPosition, transferCount, channel);
+                    hasRemain = writeSize < transferCount;
+                    //文件在输出期间被截断,剩余数据已不可读
+                    if (writeSize == 0 && transferPosition >= transferFile.size()) {
+                        throw new EOFException("file truncated at " + transferPosition);
+                    }
+                }
             } else {
                 writeInvoker = 0;
             }
@@ -413,8 +561,13 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
             if (writeSize != 0 || !hasRemain) {
                 CompletionHandler<Number, Object> completionHandler = writeCompletionHandler;
                 Object attach = writeAttachment;
+                boolean transfer = transferFile != null;
                 resetWrite();
-                completionHandler.completed(writeSize, attach);
+                if (transfer) {
+                    completionHandler.completed(writeSize, attach);
+                } else {
+                    completionHandler.completed((int) writeSize, attach);
+                }
             } else {
                 SelectionKey commonSelectionKey = channel.keyFor(commonWorker.selector);
                 if (commonSelectionKey == null) {
@@ -448,6 +601,7 @@ final class EnhanceAsynchronousSocketChannel extends AsynchronousSocketChannel {
         writeAttachment = null;
         writeCompletionHandler = null;
         writeBuffer = null;
+        transferFile = null;
     }
 
     @Override
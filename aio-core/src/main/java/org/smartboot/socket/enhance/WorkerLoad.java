@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: WorkerLoad.java
+ * Date: 2022-10-09
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.enhance;
+
+/**
+ * read 线程的负载信息。
+ * <p>各项数值由 read 线程自行维护，其他线程读取到的是近似值。</p>
+ *
+ * @author 三刀（zhengjunweimail@163.com）
+ * @version V1.0 , 2022/10/9
+ */
+public interface WorkerLoad {
+    /**
+     * @return read 线程在线程组中的索引
+     */
+    int getIndex();
+
+    /**
+     * @return 当前分配至该线程的连接数
+     */
+    int getConnectionCount();
+
+    /**
+     * 线程繁忙度,即事件处理耗时占总耗时的比例(EWMA)
+     *
+     * @return 0~1之间的数值
+     */
+    double getBusyRatio();
+
+    /**
+     * @return 该线程累计读取的字节数
+     */
+    long getReadBytes();
+}
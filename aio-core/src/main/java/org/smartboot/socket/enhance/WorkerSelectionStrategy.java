@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: WorkerSelectionStrategy.java
+ * Date: 2022-10-09
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.enhance;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 新连接的 read 线程分配策略
+ *
+ * @author 三刀（zhengjunweimail@163.com）
+ * @version V1.0 , 2022/10/9
+ */
+public interface WorkerSelectionStrategy {
+
+    /**
+     * 为新连接选择 read 线程
+     *
+     * @param workers       线程组内全部 read 线程的负载信息,请勿修改该数组
+     * @param remoteAddress 连接的远程地址,客户端连接尚未建立时为null
+     * @return 选中的线程索引
+     */
+    int select(WorkerLoad[] workers, SocketAddress remoteAddress);
+
+    /**
+     * 轮询分配,默认策略
+     */
+    static WorkerSelectionStrategy roundRobin() {
+        AtomicInteger index = new AtomicInteger(0);
+        return (workers, remoteAddress) -> (index.getAndIncrement() & Integer.MAX_VALUE) % workers.length;
+    }
+
+    /**
+     * 分配至连接数最少的线程
+     */
+    static WorkerSelectionStrategy leastConnections() {
+        return (workers, remoteAddress) -> {
+            int index = 0;
+            for (int i = 1; i < workers.length; i++) {
+                if (workers[i].getConnectionCount() < workers[index].getConnectionCount()) {
+                    index = i;
+                }
+            }
+            return index;
+        };
+    }
+
+    /**
+     * 分配至繁忙度最低的线程,繁忙度相近时选择连接数较少者
+     */
+    static WorkerSelectionStrategy leastLoad() {
+        return (workers, remoteAddress) -> {
+            int index = 0;
+            for (int i = 1; i < workers.length; i++) {
+                double diff = workers[i].getBusyRatio() - workers[index].getBusyRatio();
+                if (diff < -0.01 || (diff <= 0.01 && workers[i].getConnectionCount() < workers[index].getConnectionCount())) {
+                    index = i;
+                }
+            }
+            return index;
+        };
+    }
+
+    /**
+     * 按远程IP分配,同一IP的连接始终由同一线程处理
+     */
+    static WorkerSelectionStrategy keyAffinity() {
+        return keyAffinity(address -> address instanceof InetSocketAddress ? ((InetSocketAddress) address).getAddress() : address);
+    }
+
+    /**
+     * 按连接的Key分配,Key相同的连接始终由同一线程处理。无法获取Key时退化为 {@link #leastConnections()}
+     *
+     * @param keyFunction 根据远程地址计算Key
+     */
+    static WorkerSelectionStrategy keyAffinity(Function<SocketAddress, Object> keyFunction) {
+        WorkerSelectionStrategy fallback = leastConnections();
+        return (workers, remoteAddress) -> {
+            Object key = remoteAddress == null ? null : keyFunction.apply(remoteAddress);
+            if (key == null) {
+                return fallback.select(workers, remoteAddress);
+            }
+            return (key.hashCode() & Integer.MAX_VALUE) % workers.length;
+        };
+    }
+}
@@ -10,8 +10,10 @@
 
 package org.smartboot.socket.transport;
 
+import org.smartboot.socket.Encoder;
 import org.smartboot.socket.MessageProcessor;
 import org.smartboot.socket.Protocol;
+import org.smartboot.socket.StateMachineEnum;
 import org.smartboot.socket.VirtualBufferFactory;
 import org.smartboot.socket.buffer.BufferFactory;
 import org.smartboot.socket.buffer.BufferPagePool;
@@ -20,6 +22,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.SocketOption;
+import java.security.InvalidParameterException;
 import java.nio.channels.AsynchronousChannelGroup;
 import java.nio.channels.AsynchronousSocketChannel;
 import java.nio.channels.CompletionHandler;
@@ -151,7 +154,7 @@ public final class AioQuickClient {
                         throw new RuntimeException("NetMonitor refuse channel");
                     }
                     //连接成功则构造AIOSession对象
-                    session = new TcpAioSession(connectedChannel, config, bufferPool.allocateBufferPage(), bufferPage -> readBufferFactory.newBuffer(bufferPage));
+                    session = new TcpAioSession(socketChannel, connectedChannel, config, bufferPool.allocateBufferPage(), readBufferFactory.newSessionFactory());
                     handler.completed(session, attachment);
                 } catch (Exception e) {
                     failed(e, socketChannel);
@@ -364,6 +367,104 @@ public final class AioQuickClient {
         return this;
     }
 
+    /**
+     * 设置单个会话每轮读处理的预算。
+     * <p>
+     * 会话在一轮读处理中解码的消息数或字节数达到上限后，将让出 read 线程，待同线程中其他就绪的会话处理完毕再继续，
+     * 避免个别高流量会话长时间占用 read 线程。仅对 smart-socket 提供的 AsynchronousChannelGroup 生效。
+     * </p>
+     *
+     * @param maxMessages 消息数上限,0:不限制
+     * @param maxBytes    字节数上限,0:不限制
+     * @return 当前客户端实例
+     */
+    public final AioQuickClient setReadBudget(int maxMessages, int maxBytes) {
+        if (maxMessages < 0 || maxBytes < 0) {
+            throw new InvalidParameterException("read budget must >= 0");
+        }
+        this.config.setReadBudgetMessages(maxMessages);
+        this.config.setReadBudgetBytes(maxBytes);
+        return this;
+    }
+
+    /**
+     * 启用 WriteBuffer 的并发写模式。
+     * <p>
+     * 该模式下业务线程输出数据时无需竞争锁资源，每次 write 操作产生的数据块由输出线程批量合并后输出，
+     * 适用于多个业务线程同时向同一会话输出数据的场景。单个业务线程输出时建议保持默认模式。
+     * </p>
+     *
+     * @param concurrentWrite 是否启用
+     * @return 当前客户端实例
+     */
+    public final AioQuickClient setConcurrentWrite(boolean concurrentWrite) {
+        this.config.setConcurrentWrite(concurrentWrite);
+        return this;
+    }
+
+    /**
+     * 设置输出缓冲区的高低水位线。
+     * <p>
+     * 会话待输出的数据超过高水位线时，{@link AioSession#isWritable()} 返回 false 并触发 {@link StateMachineEnum#UNWRITABLE} 事件；
+     * 回落至低水位线后恢复可写并触发 {@link StateMachineEnum#WRITABLE} 事件。业务可据此暂停输出，避免阻塞写线程。
+     * </p>
+     *
+     * @param low  低水位线,单位:byte
+     * @param high 高水位线,单位:byte。0:不启用
+     * @return 当前客户端实例
+     */
+    public final AioQuickClient setWriteWaterMark(int low, int high) {
+        if (high < 0 || low < 0 || (high > 0 && low >= high)) {
+            throw new InvalidParameterException("invalid water mark, low:" + low + " high:" + high);
+        }
+        this.config.setWriteLowWaterMark(low);
+        this.config.setWriteHighWaterMark(high);
+        return this;
+    }
+
+    /**
+     * 输出缓冲区达到容量上限时直接抛出 {@link java.nio.BufferOverflowException}，而非阻塞写线程。
+     * <p>容量上限取决于 setWriteBuffer 设置的内存块大小与数量之积</p>
+     *
+     * @param failFast 是否启用
+     * @return 当前客户端实例
+     */
+    public final AioQuickClient setWriteFailFast(boolean failFast) {
+        this.config.setWriteFailFast(failFast);
+        return this;
+    }
+
+    /**
+     * 设置消息编码器,设置后可通过 {@link AioSession#writeObject(Object)} 输出业务消息
+     *
+     * @param encoder 消息编码器
+     * @param <T>     消息对象实体类型
+     * @return 当前客户端实例
+     */
+    public final <T> AioQuickClient setEncoder(Encoder<T> encoder) {
+        this.config.setEncoder(encoder);
+        return this;
+    }
+
+    /**
+     * 设置 WriteBuffer 的自动刷新策略,默认为 {@link FlushPolicy#END_OF_BATCH}。
+     * <p>
+     * 多个线程频繁输出小数据包时,可通过 SIZE_THRESHOLD、MAX_DELAY 策略合并输出,减少系统调用次数。
+     * </p>
+     *
+     * @param policy 刷新策略
+     * @param value  SIZE_THRESHOLD:触发输出的字节数;MAX_DELAY:最大延迟,单位:微秒;其余策略忽略该参数
+     * @return 当前客户端实例
+     */
+    public final AioQuickClient setFlushPolicy(FlushPolicy policy, int value) {
+        if (policy == null || ((policy == FlushPolicy.SIZE_THRESHOLD || policy == FlushPolicy.MAX_DELAY) && value <= 0)) {
+            throw new InvalidParameterException("invalid flush policy:" + policy + " value:" + value);
+        }
+        this.config.setFlushPolicy(policy);
+        this.config.setFlushPolicyValue(value);
+        return this;
+    }
+
     /**
      * 客户端连接超时时间，单位:毫秒
      *
@@ -9,15 +9,16 @@
 
 package org.smartboot.socket.transport;
 
+import org.smartboot.socket.Encoder;
 import org.smartboot.socket.MessageProcessor;
 import org.smartboot.socket.Protocol;
 import org.smartboot.socket.StateMachineEnum;
 import org.smartboot.socket.VirtualBufferFactory;
 import org.smartboot.socket.buffer.BufferFactory;
-import org.smartboot.socket.buffer.BufferPage;
 import org.smartboot.socket.buffer.BufferPagePool;
-import org.smartboot.socket.buffer.VirtualBuffer;
 import org.smartboot.socket.enhance.EnhanceAsynchronousChannelProvider;
+import org.smartboot.socket.enhance.WorkerLoad;
+import org.smartboot.socket.enhance.WorkerSelectionStrategy;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -31,7 +32,6 @@ import java.security.InvalidParameterException;
 import java.util.Map;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 
 /**
  * AIO服务端。
@@ -68,6 +68,18 @@ public final class AioQuickServer {
      * 是否开启低内存模式
      */
     private boolean lowMemory;
+    /**
+     * read 线程忙轮询时长,单位:微秒。0:不启用
+     */
+    private int busyPoll;
+    /**
+     * read 线程分配策略
+     */
+    private WorkerSelectionStrategy workerSelectionStrategy;
+    /**
+     * 触发连接迁移的 read 线程繁忙度阈值,0:不启用
+     */
+    private double rebalanceThreshold;
     /**
      * 客户端服务配置。
      * <p>调用AioQuickClient的各setXX()方法，都是为了设置config的各配置项</p>
@@ -81,6 +93,11 @@ public final class AioQuickServer {
 
     private VirtualBufferFactory readBufferFactory = bufferPage -> bufferPage.allocate(config.getReadBufferSize());
 
+    /**
+     * 存活会话注册表
+     */
+    private final SessionRegistry sessionRegistry = new SessionRegistry(this::getReadWorkerLoads);
+
     /**
      * 设置服务端启动必要参数配置
      *
@@ -93,6 +110,7 @@ public final class AioQuickServer {
         config.setProtocol(protocol);
         config.setProcessor(messageProcessor);
         config.setThreadNum(Runtime.getRuntime().availableProcessors());
+        config.setSessionRegistry(sessionRegistry);
     }
 
     /**
@@ -116,7 +134,11 @@ public final class AioQuickServer {
             this.bufferPool = config.getBufferFactory().create();
             this.innerBufferPool = bufferPool;
         }
-        asynchronousChannelGroup = new EnhanceAsynchronousChannelProvider(lowMemory).openAsynchronousChannelGroup(config.getThreadNum(), new ThreadFactory() {
+        EnhanceAsynchronousChannelProvider provider = new EnhanceAsynchronousChannelProvider(lowMemory)
+                .setBusyPoll(busyPoll, TimeUnit.MICROSECONDS)
+                .setWorkerSelectionStrategy(workerSelectionStrategy)
+                .setRebalanceThreshold(rebalanceThreshold);
+        asynchronousChannelGroup = provider.openAsynchronousChannelGroup(config.getThreadNum(), new ThreadFactory() {
             private byte index = 0;
 
             @Override
@@ -164,7 +186,6 @@ public final class AioQuickServer {
     }
 
     private void startAcceptThread() {
-        Function<BufferPage, VirtualBuffer> function = bufferPage -> readBufferFactory.newBuffer(bufferPage);
         serverSocketChannel.accept(null, new CompletionHandler<AsynchronousSocketChannel, Void>() {
             @Override
             public void completed(AsynchronousSocketChannel channel, Void attachment) {
@@ -175,7 +196,7 @@ public final class AioQuickServer {
                     failed(throwable, attachment);
                     serverSocketChannel.accept(attachment, this);
                 } finally {
-                    createSession(channel, function);
+                    createSession(channel);
                 }
             }
 
@@ -191,7 +212,7 @@ public final class AioQuickServer {
      *
      * @param channel 当前已建立连接通道
      */
-    private void createSession(AsynchronousSocketChannel channel, Function<BufferPage, VirtualBuffer> function) {
+    private void createSession(AsynchronousSocketChannel channel) {
         //连接成功则构造AIOSession对象
         TcpAioSession session = null;
         AsynchronousSocketChannel acceptChannel = channel;
@@ -201,7 +222,7 @@ public final class AioQuickServer {
             }
             if (acceptChannel != null) {
                 acceptChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
-                session = new TcpAioSession(acceptChannel, this.config, bufferPool.allocateBufferPage(), function);
+                session = new TcpAioSession(channel, acceptChannel, this.config, bufferPool.allocateBufferPage(), readBufferFactory.newSessionFactory());
             } else {
                 config.getProcessor().stateEvent(null, StateMachineEnum.REJECT_ACCEPT, null);
                 IOUtil.close(channel);
@@ -316,6 +337,104 @@ public final class AioQuickServer {
         return this;
     }
 
+    /**
+     * 设置单个会话每轮读处理的预算。
+     * <p>
+     * 会话在一轮读处理中解码的消息数或字节数达到上限后，将让出 read 线程，待同线程中其他就绪的会话处理完毕再继续，
+     * 避免个别高流量会话长时间占用 read 线程。仅对 smart-socket 提供的 AsynchronousChannelGroup 生效。
+     * </p>
+     *
+     * @param maxMessages 消息数上限,0:不限制
+     * @param maxBytes    字节数上限,0:不限制
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer setReadBudget(int maxMessages, int maxBytes) {
+        if (maxMessages < 0 || maxBytes < 0) {
+            throw new InvalidParameterException("read budget must >= 0");
+        }
+        this.config.setReadBudgetMessages(maxMessages);
+        this.config.setReadBudgetBytes(maxBytes);
+        return this;
+    }
+
+    /**
+     * 启用 WriteBuffer 的并发写模式。
+     * <p>
+     * 该模式下业务线程输出数据时无需竞争锁资源，每次 write 操作产生的数据块由输出线程批量合并后输出，
+     * 适用于多个业务线程同时向同一会话输出数据的场景。单个业务线程输出时建议保持默认模式。
+     * </p>
+     *
+     * @param concurrentWrite 是否启用
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer setConcurrentWrite(boolean concurrentWrite) {
+        this.config.setConcurrentWrite(concurrentWrite);
+        return this;
+    }
+
+    /**
+     * 设置输出缓冲区的高低水位线。
+     * <p>
+     * 会话待输出的数据超过高水位线时，{@link AioSession#isWritable()} 返回 false 并触发 {@link StateMachineEnum#UNWRITABLE} 事件；
+     * 回落至低水位线后恢复可写并触发 {@link StateMachineEnum#WRITABLE} 事件。业务可据此暂停输出，避免阻塞写线程。
+     * </p>
+     *
+     * @param low  低水位线,单位:byte
+     * @param high 高水位线,单位:byte。0:不启用
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer setWriteWaterMark(int low, int high) {
+        if (high < 0 || low < 0 || (high > 0 && low >= high)) {
+            throw new InvalidParameterException("invalid water mark, low:" + low + " high:" + high);
+        }
+        this.config.setWriteLowWaterMark(low);
+        this.config.setWriteHighWaterMark(high);
+        return this;
+    }
+
+    /**
+     * 输出缓冲区达到容量上限时直接抛出 {@link java.nio.BufferOverflowException}，而非阻塞写线程。
+     * <p>容量上限取决于 setWriteBuffer 设置的内存块大小与数量之积</p>
+     *
+     * @param failFast 是否启用
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer setWriteFailFast(boolean failFast) {
+        this.config.setWriteFailFast(failFast);
+        return this;
+    }
+
+    /**
+     * 设置消息编码器,设置后可通过 {@link AioSession#writeObject(Object)} 输出业务消息
+     *
+     * @param encoder 消息编码器
+     * @param <T>     消息对象实体类型
+     * @return 当前AioQuickServer对象
+     */
+    public final <T> AioQuickServer setEncoder(Encoder<T> encoder) {
+        this.config.setEncoder(encoder);
+        return this;
+    }
+
+    /**
+     * 设置 WriteBuffer 的自动刷新策略,默认为 {@link FlushPolicy#END_OF_BATCH}。
+     * <p>
+     * 多个线程频繁输出小数据包时,可通过 SIZE_THRESHOLD、MAX_DELAY 策略合并输出,减少系统调用次数。
+     * </p>
+     *
+     * @param policy 刷新策略
+     * @param value  SIZE_THRESHOLD:触发输出的字节数;MAX_DELAY:最大延迟,单位:微秒;其余策略忽略该参数
+     * @return 当前AioQuickServer对象
+     */
+    public final AioQuickServer setFlushPolicy(FlushPolicy policy, int value) {
+        if (policy == null || ((policy == FlushPolicy.SIZE_THRESHOLD || policy == FlushPolicy.MAX_DELAY) && value <= 0)) {
+            throw new InvalidParameterException("invalid flush policy:" + policy + " value:" + value);
+        }
+        this.config.setFlushPolicy(policy);
+        this.config.setFlushPolicyValue(value);
+        return this;
+    }
+
     /**
      * 设置 backlog 大小
      *
@@ -366,4 +485,72 @@ public final class AioQuickServer {
         this.lowMemory = lowMemory;
         return this;
     }
+
+    /**
+     * 启用 read 线程的忙轮询模式,适用于对延迟极度敏感的场景。
+     * <p>
+     * read 线程空闲时会在 busyPoll 时长内持续以 selectNow 轮询，超时后再转入阻塞式 select。
+     * 该模式以额外的 CPU 开销换取更低的唤醒延迟，仅对 {@link #start()} 内部创建的线程组生效。
+     * </p>
+     *
+     * @param busyPoll 忙轮询时长,单位:微秒。0:不启用
+     * @return 当前AioQuickServer对象
+     */
+    public AioQuickServer setBusyPoll(int busyPoll) {
+        if (busyPoll < 0) {
+            throw new InvalidParameterException("busyPoll must >= 0");
+        }
+        this.busyPoll = busyPoll;
+        return this;
+    }
+
+    /**
+     * 设置新连接的 read 线程分配策略，默认为轮询分配。
+     * <p>仅对 {@link #start()} 内部创建的线程组生效。</p>
+     *
+     * @param workerSelectionStrategy 分配策略
+     * @return 当前AioQuickServer对象
+     * @see WorkerSelectionStrategy
+     */
+    public AioQuickServer setWorkerSelectionStrategy(WorkerSelectionStrategy workerSelectionStrategy) {
+        this.workerSelectionStrategy = workerSelectionStrategy;
+        return this;
+    }
+
+    /**
+     * 启用 read 线程间的连接自动迁移。
+     * <p>
+     * 当某个 read 线程的繁忙度超过阈值时，会在数据读取的间隙将其中流量较大的连接迁移至最空闲的 read 线程，
+     * 以缓解长连接造成的热点。仅对 {@link #start()} 内部创建的线程组生效。
+     * </p>
+     *
+     * @param rebalanceThreshold 繁忙度阈值,取值范围:(0,1]。0:不启用
+     * @return 当前AioQuickServer对象
+     */
+    public AioQuickServer setRebalanceThreshold(double rebalanceThreshold) {
+        if (rebalanceThreshold < 0 || rebalanceThreshold > 1) {
+            throw new InvalidParameterException("rebalanceThreshold must between 0 and 1");
+        }
+        this.rebalanceThreshold = rebalanceThreshold;
+        return this;
+    }
+
+    /**
+     * 获取服务端各 read 线程的负载信息。
+     * <p>通过 {@link #start(AsynchronousChannelGroup)} 启动的服务请使用 {@link EnhanceAsynchronousChannelProvider#getReadWorkerLoads(AsynchronousChannelGroup)}</p>
+     *
+     * @return 负载信息,服务未启动时返回空数组
+     */
+    public WorkerLoad[] getReadWorkerLoads() {
+        return EnhanceAsynchronousChannelProvider.getReadWorkerLoads(asynchronousChannelGroup);
+    }
+
+    /**
+     * 获取服务端存活会话的注册表,可通过会话ID查找会话
+     *
+     * @return 会话注册表
+     */
+    public SessionRegistry getSessionRegistry() {
+        return sessionRegistry;
+    }
 }
@@ -14,12 +14,21 @@ import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author 三刀
  * @version V1.0 , 2019/8/25
  */
 public abstract class AioSession {
+    /**
+     * 会话ID生成器
+     */
+    private static final AtomicLong ID_GENERATOR = new AtomicLong();
 
 
     /**
@@ -49,10 +58,23 @@ public abstract class AioSession {
      */
     boolean eof;
     int modCount = 0;
+    /**
+     * 读缓冲区的版本号,每条消息处理完毕或读缓冲区变更时递增,用于检测 {@link MessageView} 的过期访问
+     */
+    int readGeneration;
     /**
      * 附件对象
      */
     private Object attachment;
+    /**
+     * 会话状态槽位
+     */
+    private Object[] slots;
+    /**
+     * 会话ID,按创建顺序单调递增
+     */
+    private final long id = ID_GENERATOR.incrementAndGet();
+    private String sessionId;
 
     /**
      * 获取WriteBuffer用以数据输出
@@ -66,6 +88,16 @@ public abstract class AioSession {
      */
     public abstract ByteBuffer readBuffer();
 
+    /**
+     * 当前会话是否可写。
+     * <p>待输出数据超过输出缓冲区的高水位线时返回 false,业务可据此暂停输出</p>
+     *
+     * @return true:可写,false:建议暂停输出
+     */
+    public boolean isWritable() {
+        return writeBuffer().isWritable();
+    }
+
     /**
      * 强制关闭当前AIOSession。
      * <p>若此时还存留待输出的数据，则会导致该部分数据丢失</p>
@@ -81,6 +113,17 @@ public abstract class AioSession {
      */
     public abstract void signalRead();
 
+    /**
+     * 在 read 线程中恢复由 {@link #awaitRead()} 暂停的读行为,可由任意线程调用。
+     * <p>
+     * 与直接调用 {@link #signalRead()} 不同,恢复过程中出现的异常(如解码失败、通道已关闭)将以 INPUT_EXCEPTION 事件通知并关闭会话,
+     * 不会因异常被吞没而导致会话既无读操作也未关闭。
+     * </p>
+     */
+    public void resumeRead() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * 是否立即关闭会话
      *
@@ -88,13 +131,26 @@ public abstract class AioSession {
      */
     public abstract void close(boolean immediate);
 
+    /**
+     * 获取当前Session的数值标识,进程内唯一且按会话创建顺序单调递增
+     *
+     * @return 会话ID
+     * @see SessionRegistry#get(long)
+     */
+    public final long getId() {
+        return id;
+    }
+
     /**
      * 获取当前Session的唯一标识
      *
      * @return sessionId
      */
     public String getSessionID() {
-        return "aioSession-" + hashCode();
+        if (sessionId == null) {
+            sessionId = "aioSession-" + id;
+        }
+        return sessionId;
     }
 
     /**
@@ -127,6 +183,53 @@ public abstract class AioSession {
         this.attachment = attachment;
     }
 
+    /**
+     * 获取槽位中存放的会话状态
+     *
+     * @param slot 状态槽位
+     * @param <V>  状态对象类型
+     * @return 会话状态,不存在时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public final <V> V getSlot(SessionSlot<V> slot) {
+        Object[] array = slots;
+        return array == null || slot.index >= array.length ? null : (V) array[slot.index];
+    }
+
+    /**
+     * 将会话状态存放至指定槽位,value 为 null 时即为清除
+     *
+     * @param slot  状态槽位
+     * @param value 会话状态
+     * @param <V>   状态对象类型
+     */
+    public final <V> void setSlot(SessionSlot<V> slot, V value) {
+        if (slots == null) {
+            slots = new Object[Math.max(8, slot.index + 1)];
+        } else if (slot.index >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(slots.length << 1, slot.index + 1));
+        }
+        slots[slot.index] = value;
+    }
+
+    /**
+     * 会话关闭时释放槽位中实现了 {@link AutoCloseable} 的状态对象
+     */
+    void releaseSlots() {
+        Object[] array = slots;
+        if (array == null) {
+            return;
+        }
+        for (Object value : array) {
+            if (value instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) value).close();
+                } catch (Exception ignored) {
+                }
+            }
+        }
+    }
+
     /**
      * 获取当前会话的本地连接地址
      *
@@ -145,6 +248,77 @@ public abstract class AioSession {
      */
     public abstract InetSocketAddress getRemoteAddress() throws IOException;
 
+    /**
+     * 通过注册的 {@link org.smartboot.socket.Encoder} 将消息直接编码至内存池缓冲区并写入 {@link #writeBuffer()}。
+     * <p>与 write 方法一致,数据待 flush 后输出</p>
+     *
+     * @param msg 待输出的消息
+     * @throws IOException WriteBuffer 已关闭
+     */
+    public void writeObject(Object msg) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 在当前会话的 read 线程中执行任务。
+     * <p>
+     * 任务与该会话的读回调串行执行，业务线程可借此将输出操作转交至 read 线程，避免与之竞争 WriteBuffer 的锁资源。
+     * 任务执行完毕后会自动 flush 输出缓冲区。
+     * </p>
+     * <p>
+     * 仅 smart-socket 提供的 AsynchronousChannelGroup 支持该操作，否则会触发UnsupportedOperationException异常。
+     * </p>
+     *
+     * @param task 待执行任务
+     */
+    public void execute(Runnable task) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 在当前会话的 read 线程中执行定时任务，约束同 {@link #execute(Runnable)}。
+     *
+     * @param task  待执行任务
+     * @param delay 延迟时长
+     * @param unit  时间单位
+     */
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 将文件内容输出至对端,与此前写入 {@link #writeBuffer()} 的数据保持先后顺序。
+     *
+     * @param file     待输出的文件
+     * @param position 文件中的起始位置
+     * @param count    输出的字节数
+     * @throws IOException IO异常
+     * @see #transferFile(FileChannel, long, long, CompletionHandler)
+     */
+    public final void transferFile(FileChannel file, long position, long count) throws IOException {
+        transferFile(file, position, count, null);
+    }
+
+    /**
+     * 将文件内容输出至对端,与此前写入 {@link #writeBuffer()} 的数据保持先后顺序。
+     * <p>
+     * 采用 smart-socket 提供的 AsynchronousChannelGroup 时通过 {@link FileChannel#transferTo} 零拷贝输出;
+     * 若通道经插件包装(如 TLS、代理、流量统计),则分批读取至缓冲区后输出。
+     * </p>
+     * <p>
+     * 文件输出完毕后方可关闭该文件,输出结果通过 handler 回调,回调参数为实际输出的字节数。
+     * </p>
+     *
+     * @param file     待输出的文件
+     * @param position 文件中的起始位置
+     * @param count    输出的字节数,超出文件末尾的部分将被忽略
+     * @param handler  输出完成回调,可为 null
+     * @throws IOException IO异常
+     */
+    public void transferFile(FileChannel file, long position, long count, CompletionHandler<Long, AioSession> handler) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * 获得数据输入流对象。
      * <p>
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: EncodeBuffer.java
+ * Date: 2022-10-29
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.VirtualBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * 消息编码缓冲区,数据直接写入内存池分配的连续缓冲区,容量不足时自动扩容。
+ * <p>
+ * 支持预留字段并在编码完成后回填,典型用法为长度前缀:
+ * <pre>
+ *     int index = buffer.reserve(4);
+ *     ...
+ *     buffer.setInt(index, buffer.position() - index - 4);
+ * </pre>
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/10/29
+ */
+public final class EncodeBuffer {
+    private final BufferPage bufferPage;
+    private VirtualBuffer virtualBuffer;
+    private ByteBuffer buffer;
+
+    EncodeBuffer(BufferPage bufferPage, int capacity) {
+        this.bufferPage = bufferPage;
+        this.virtualBuffer = bufferPage.allocate(capacity);
+        this.buffer = virtualBuffer.buffer();
+    }
+
+    /**
+     * 确保缓冲区至少还能容纳 size 个字节
+     */
+    private void ensureCapacity(int size) {
+        if (buffer.remaining() >= size) {
+            return;
+        }
+        VirtualBuffer newBuffer = bufferPage.allocate(Math.max(buffer.capacity() << 1, buffer.position() + size));
+        buffer.flip();
+        newBuffer.buffer().put(buffer);
+        virtualBuffer.clean();
+        virtualBuffer = newBuffer;
+        buffer = newBuffer.buffer();
+    }
+
+    public EncodeBuffer writeByte(int v) {
+        ensureCapacity(1);
+        buffer.put((byte) v);
+        return this;
+    }
+
+    public EncodeBuffer writeShort(int v) {
+        ensureCapacity(2);
+        buffer.putShort((short) v);
+        return this;
+    }
+
+    public EncodeBuffer writeInt(int v) {
+        ensureCapacity(4);
+        buffer.putInt(v);
+        return this;
+    }
+
+    public EncodeBuffer writeLong(long v) {
+        ensureCapacity(8);
+        buffer.putLong(v);
+        return this;
+    }
+
+    public EncodeBuffer writeShortLE(int v) {
+        ensureCapacity(2);
+        buffer.putShort(Short.reverseBytes((short) v));
+        return this;
+    }
+
+    public EncodeBuffer writeIntLE(int v) {
+        ensureCapacity(4);
+        buffer.putInt(Integer.reverseBytes(v));
+        return this;
+    }
+
+    public EncodeBuffer writeLongLE(long v) {
+        ensureCapacity(8);
+        buffer.putLong(Long.reverseBytes(v));
+        return this;
+    }
+
+    /**
+     * 以无符号 varint 编码写入int数值
+     */
+    public EncodeBuffer writeVarInt(int v) {
+        return writeVarLong(v & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 以 zigzag + varint 编码写入有符号int数值
+     */
+    public EncodeBuffer writeSignedVarInt(int v) {
+        return writeVarLong(EncodeUtils.zigZag(v));
+    }
+
+    /**
+     * 以 zigzag + varint 编码写入有符号long数值
+     */
+    public EncodeBuffer writeSignedVarLong(long v) {
+        return writeVarLong(EncodeUtils.zigZag(v));
+    }
+
+    /**
+     * 以无符号 varint 编码写入long数值
+     */
+    public EncodeBuffer writeVarLong(long v) {
+        ensureCapacity(10);
+        EncodeUtils.putVarLong(buffer, v);
+        return this;
+    }
+
+    /**
+     * 写入字符串,UTF-8、ISO-8859-1、US-ASCII 字符集直接编码至缓冲区
+     */
+    public EncodeBuffer writeString(CharSequence value, Charset charset) {
+        if (!EncodeUtils.isSupported(charset)) {
+            return write(value.toString().getBytes(charset));
+        }
+        ensureCapacity(EncodeUtils.encodedLength(value, charset));
+        EncodeUtils.encode(value, charset, buffer);
+        return this;
+    }
+
+    public EncodeBuffer write(byte[] b) {
+        return write(b, 0, b.length);
+    }
+
+    public EncodeBuffer write(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        buffer.put(b, off, len);
+        return this;
+    }
+
+    public EncodeBuffer write(ByteBuffer src) {
+        ensureCapacity(src.remaining());
+        buffer.put(src);
+        return this;
+    }
+
+    /**
+     * 预留指定长度的字段,待后续通过 setXXX 方法回填
+     *
+     * @param size 字段长度
+     * @return 字段的起始位置
+     */
+    public int reserve(int size) {
+        ensureCapacity(size);
+        int index = buffer.position();
+        buffer.position(index + size);
+        return index;
+    }
+
+    public EncodeBuffer setByte(int index, int v) {
+        buffer.put(index, (byte) v);
+        return this;
+    }
+
+    public EncodeBuffer setShort(int index, int v) {
+        buffer.putShort(index, (short) v);
+        return this;
+    }
+
+    public EncodeBuffer setInt(int index, int v) {
+        buffer.putInt(index, v);
+        return this;
+    }
+
+    /**
+     * @return 已编码的字节数
+     */
+    public int position() {
+        return buffer.position();
+    }
+
+    /**
+     * 获取已编码区间的只读视图,用于压缩、校验等对已编码数据的二次处理。
+     * 视图与缓冲区共享数据,仅在下一次写入之前有效
+     *
+     * @param index  起始位置
+     * @param length 长度
+     * @return 只读视图
+     */
+    public ByteBuffer slice(int index, int length) {
+        if (index < 0 || length < 0 || index + length > buffer.position()) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + length + ", position: " + buffer.position());
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.limit(index + length).position(index);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * 丢弃指定位置之后已编码的数据
+     *
+     * @param position 保留的字节数
+     */
+    public void truncate(int position) {
+        if (position < 0 || position > buffer.position()) {
+            throw new IndexOutOfBoundsException("position: " + position + ", current: " + buffer.position());
+        }
+        buffer.position(position);
+    }
+
+    /**
+     * 结束编码,缓冲区的所有权随之移交至调用方
+     */
+    VirtualBuffer finish() {
+        buffer.flip();
+        VirtualBuffer result = virtualBuffer;
+        virtualBuffer = null;
+        buffer = null;
+        return result;
+    }
+
+    /**
+     * 编码失败时释放缓冲区
+     */
+    void release() {
+        if (virtualBuffer != null) {
+            virtualBuffer.clean();
+            virtualBuffer = null;
+            buffer = null;
+        }
+    }
+}
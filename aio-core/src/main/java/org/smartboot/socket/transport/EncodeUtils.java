@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: EncodeUtils.java
+ * Date: 2022-11-05
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * varint 及字符串的编码工具,供 {@link WriteBuffer}、{@link EncodeBuffer} 直接写入缓冲区使用
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/5
+ */
+final class EncodeUtils {
+    private EncodeUtils() {
+    }
+
+    /**
+     * 无符号 varint 编码后的字节数
+     */
+    static int varLongSize(long v) {
+        int size = 1;
+        while ((v & ~0x7FL) != 0) {
+            v >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * 写入无符号 varint 编码的数值,调用方需确保剩余空间充足
+     */
+    static void putVarLong(ByteBuffer buffer, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buffer.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+
+    /**
+     * zigzag 编码,将有符号数映射为无符号数,使绝对值较小的负数同样获得较短的 varint 编码
+     */
+    static long zigZag(int v) {
+        return ((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL;
+    }
+
+    static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    /**
+     * 是否支持直接编码的字符集
+     */
+    static boolean isSupported(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset) || StandardCharsets.ISO_8859_1.equals(charset) || StandardCharsets.US_ASCII.equals(charset);
+    }
+
+    /**
+     * 字符串编码后的字节数,与 {@link String#getBytes(Charset)} 的结果一致
+     */
+    static int encodedLength(CharSequence value, Charset charset) {
+        int length = value.length();
+        boolean utf8 = StandardCharsets.UTF_8.equals(charset);
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size++;
+            } else if (!utf8) {
+                //成对的代理字符视为一个无法编码的字符
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    i++;
+                }
+                size++;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                i++;
+                size += 4;
+            } else if (Character.isSurrogate(c)) {
+                size++;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 将字符串直接编码至缓冲区,调用方需确保剩余空间不小于 {@link #encodedLength(CharSequence, Charset)}
+     */
+    static void encode(CharSequence value, Charset charset, ByteBuffer buffer) {
+        int length = value.length();
+        int i = 0;
+        //ASCII 字符在三种字符集下的编码一致
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            buffer.put((byte) c);
+        }
+        if (i == length) {
+            return;
+        }
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            encodeUtf8(value, i, buffer);
+            return;
+        }
+        char max = StandardCharsets.ISO_8859_1.equals(charset) ? (char) 0xFF : (char) 0x7F;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c <= max) {
+                buffer.put((byte) c);
+            } else {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    i++;
+                }
+                buffer.put((byte) '?');
+            }
+        }
+    }
+
+    private static void encodeUtf8(CharSequence value, int from, ByteBuffer buffer) {
+        int length = value.length();
+        for (int i = from; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                //不成对的代理字符,与 String#getBytes 的处理保持一致
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+}
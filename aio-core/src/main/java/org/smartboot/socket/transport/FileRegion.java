@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: FileRegion.java
+ * Date: 2022-10-20
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import org.smartboot.socket.buffer.VirtualBuffer;
+
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+
+/**
+ * 待输出的文件区间,在输出队列中与 {@link WriteBuffer} 中的数据保持先后顺序
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/10/20
+ */
+final class FileRegion {
+    /**
+     * 待输出的文件
+     */
+    final FileChannel file;
+    /**
+     * 文件中下一次读取的位置
+     */
+    long position;
+    /**
+     * 尚未从文件中读取的字节数
+     */
+    long remaining;
+    /**
+     * 已输出至对端的字节数
+     */
+    long transferred;
+    /**
+     * 输出完成回调
+     */
+    final CompletionHandler<Long, AioSession> handler;
+    /**
+     * 无法零拷贝输出时,用于中转文件数据的缓冲区
+     */
+    VirtualBuffer buffer;
+    /**
+     * 默认写模式下,输出队列中位于该文件之前的缓冲块累计数量
+     */
+    long barrier;
+    /**
+     * 默认写模式下,文件末尾是否为报文边界
+     */
+    boolean boundary;
+    private final AioSession session;
+
+    FileRegion(AioSession session, FileChannel file, long position, long count, CompletionHandler<Long, AioSession> handler) {
+        this.session = session;
+        this.file = file;
+        this.position = position;
+        this.remaining = count;
+        this.handler = handler;
+    }
+
+    void completed() {
+        release();
+        if (handler != null) {
+            handler.completed(transferred, session);
+        }
+    }
+
+    void failed(Throwable exc) {
+        release();
+        if (handler != null) {
+            handler.failed(exc, session);
+        }
+    }
+
+    private void release() {
+        if (buffer != null) {
+            buffer.clean();
+            buffer = null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: FlushPolicy.java
+ * Date: 2022-10-22
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+/**
+ * WriteBuffer 的自动刷新策略。
+ * <p>
+ * 无论采用何种策略,内存块写满时都会触发输出,显式调用 {@link WriteBuffer#flush()} 亦会立即输出。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/10/22
+ */
+public enum FlushPolicy {
+    /**
+     * 每次 write 操作后立即输出
+     */
+    IMMEDIATE,
+    /**
+     * 在一轮读处理、{@link AioSession#execute(Runnable)} 任务结束时输出。
+     * 其他线程中的 write 操作需自行调用 flush,默认策略
+     */
+    END_OF_BATCH,
+    /**
+     * 在 END_OF_BATCH 的基础上,待输出数据达到指定字节数时自动输出
+     */
+    SIZE_THRESHOLD,
+    /**
+     * 首个未输出的数据写入后,至多延迟指定微秒数输出,延迟期间的 write 操作合并输出。
+     * 由 read 线程的定时器驱动,非 smart-socket 提供的 AsynchronousChannelGroup 下退化为 IMMEDIATE
+     */
+    MAX_DELAY
+}
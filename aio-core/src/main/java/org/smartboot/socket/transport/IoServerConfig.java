@@ -9,6 +9,7 @@
 
 package org.smartboot.socket.transport;
 
+import org.smartboot.socket.Encoder;
 import org.smartboot.socket.MessageProcessor;
 import org.smartboot.socket.NetMonitor;
 import org.smartboot.socket.Protocol;
@@ -99,6 +100,50 @@ final class IoServerConfig {
      */
     private BufferFactory bufferFactory = BufferFactory.DISABLED_BUFFER_FACTORY;
 
+    /**
+     * 单个会话每轮读处理的消息数上限,0:不限制
+     */
+    private int readBudgetMessages;
+
+    /**
+     * 单个会话每轮读处理的字节数上限,0:不限制
+     */
+    private int readBudgetBytes;
+
+    /**
+     * 是否启用 WriteBuffer 并发写模式
+     */
+    private boolean concurrentWrite;
+
+    /**
+     * 输出缓冲区低水位线、高水位线,0:不启用
+     */
+    private int writeLowWaterMark, writeHighWaterMark;
+
+    /**
+     * 输出缓冲区达到容量上限时是否直接失败
+     */
+    private boolean writeFailFast;
+
+    /**
+     * WriteBuffer 自动刷新策略
+     */
+    private FlushPolicy flushPolicy = FlushPolicy.END_OF_BATCH;
+
+    /**
+     * 刷新策略参数,SIZE_THRESHOLD:字节数,MAX_DELAY:微秒数
+     */
+    private int flushPolicyValue;
+
+    /**
+     * 服务端会话注册表,客户端为 null
+     */
+    private SessionRegistry sessionRegistry;
+    /**
+     * 消息编码器
+     */
+    private Encoder<?> encoder;
+
 
     /**
      * 获取默认内存块大小
@@ -234,6 +279,86 @@ final class IoServerConfig {
         this.backlog = backlog;
     }
 
+    public int getReadBudgetMessages() {
+        return readBudgetMessages;
+    }
+
+    public void setReadBudgetMessages(int readBudgetMessages) {
+        this.readBudgetMessages = readBudgetMessages;
+    }
+
+    public int getReadBudgetBytes() {
+        return readBudgetBytes;
+    }
+
+    public void setReadBudgetBytes(int readBudgetBytes) {
+        this.readBudgetBytes = readBudgetBytes;
+    }
+
+    public boolean isConcurrentWrite() {
+        return concurrentWrite;
+    }
+
+    public void setConcurrentWrite(boolean concurrentWrite) {
+        this.concurrentWrite = concurrentWrite;
+    }
+
+    public int getWriteLowWaterMark() {
+        return writeLowWaterMark;
+    }
+
+    public void setWriteLowWaterMark(int writeLowWaterMark) {
+        this.writeLowWaterMark = writeLowWaterMark;
+    }
+
+    public int getWriteHighWaterMark() {
+        return writeHighWaterMark;
+    }
+
+    public void setWriteHighWaterMark(int writeHighWaterMark) {
+        this.writeHighWaterMark = writeHighWaterMark;
+    }
+
+    public boolean isWriteFailFast() {
+        return writeFailFast;
+    }
+
+    public void setWriteFailFast(boolean writeFailFast) {
+        this.writeFailFast = writeFailFast;
+    }
+
+    public FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    public void setFlushPolicy(FlushPolicy flushPolicy) {
+        this.flushPolicy = flushPolicy;
+    }
+
+    public int getFlushPolicyValue() {
+        return flushPolicyValue;
+    }
+
+    public void setFlushPolicyValue(int flushPolicyValue) {
+        this.flushPolicyValue = flushPolicyValue;
+    }
+
+    public SessionRegistry getSessionRegistry() {
+        return sessionRegistry;
+    }
+
+    public void setSessionRegistry(SessionRegistry sessionRegistry) {
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    public Encoder<?> getEncoder() {
+        return encoder;
+    }
+
+    public void setEncoder(Encoder<?> encoder) {
+        this.encoder = encoder;
+    }
+
     @Override
     public String toString() {
         return "IoServerConfig{" +
@@ -250,6 +375,14 @@ final class IoServerConfig {
                 ", socketOptions=" + socketOptions +
                 ", threadNum=" + threadNum +
                 ", bufferFactory=" + bufferFactory +
+                ", readBudgetMessages=" + readBudgetMessages +
+                ", readBudgetBytes=" + readBudgetBytes +
+                ", concurrentWrite=" + concurrentWrite +
+                ", writeLowWaterMark=" + writeLowWaterMark +
+                ", writeHighWaterMark=" + writeHighWaterMark +
+                ", writeFailFast=" + writeFailFast +
+                ", flushPolicy=" + flushPolicy +
+                ", flushPolicyValue=" + flushPolicyValue +
                 '}';
     }
 }
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: MessageView.java
+ * Date: 2022-11-02
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 定长二进制消息的享元视图,字段直接读取自会话的读缓冲区,不为每条消息创建对象。
+ * <p>
+ * 由 {@link org.smartboot.socket.Protocol#decode(ByteBuffer, AioSession)} 通过 {@link #wrap(AioSession, ByteBuffer, int, int)} 绑定至读缓冲区中的一段数据,
+ * 同一会话可复用同一个视图对象。视图仅在本次 {@link org.smartboot.socket.MessageProcessor#process(AioSession, Object)} 执行期间有效,
+ * process 返回或读缓冲区发生变更后访问字段将抛出 {@link IllegalStateException},业务需异步处理时应自行拷贝所需字段。
+ * </p>
+ * <p>
+ * 子类基于 getXXX(index) 方法定义字段访问器,index 为字段相对于消息起始位置的偏移量。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/2
+ */
+public abstract class MessageView {
+    private AioSession session;
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+    /**
+     * 绑定时读缓冲区的版本号
+     */
+    private int generation;
+
+    /**
+     * 将视图绑定至读缓冲区中的一段数据
+     *
+     * @param session 当前会话
+     * @param buffer  读缓冲区
+     * @param offset  消息在读缓冲区中的起始位置
+     * @param length  消息长度
+     */
+    public final void wrap(AioSession session, ByteBuffer buffer, int offset, int length) {
+        this.session = session;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        this.generation = session.readGeneration;
+    }
+
+    /**
+     * @return 视图当前是否可访问
+     */
+    public final boolean isValid() {
+        return session != null && session.readGeneration == generation;
+    }
+
+    /**
+     * @return 消息长度
+     */
+    public final int length() {
+        return length;
+    }
+
+    /**
+     * 校验视图的有效性及访问范围,返回字段在读缓冲区中的绝对位置
+     */
+    private int check(int index, int size) {
+        if (session == null || session.readGeneration != generation) {
+            throw new IllegalStateException("message view has expired");
+        }
+        if (index < 0 || index + size > length) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size + ", length: " + length);
+        }
+        return offset + index;
+    }
+
+    protected final byte getByte(int index) {
+        return buffer.get(check(index, Byte.BYTES));
+    }
+
+    protected final short getShort(int index) {
+        return buffer.getShort(check(index, Short.BYTES));
+    }
+
+    protected final int getInt(int index) {
+        return buffer.getInt(check(index, Integer.BYTES));
+    }
+
+    protected final long getLong(int index) {
+        return buffer.getLong(check(index, Long.BYTES));
+    }
+
+    protected final float getFloat(int index) {
+        return buffer.getFloat(check(index, Float.BYTES));
+    }
+
+    protected final double getDouble(int index) {
+        return buffer.getDouble(check(index, Double.BYTES));
+    }
+
+    /**
+     * 将指定区间的数据拷贝至目标数组
+     */
+    protected final void getBytes(int index, byte[] dst, int dstOffset, int size) {
+        int position = check(index, size);
+        for (int i = 0; i < size; i++) {
+            dst[dstOffset + i] = buffer.get(position + i);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: SessionRegistry.java
+ * Date: 2022-10-26
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import org.smartboot.socket.enhance.WorkerLoad;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 服务端存活会话的注册表,以 {@link AioSession#getId()} 为索引。
+ * <p>
+ * 会话在触发 {@link org.smartboot.socket.StateMachineEnum#NEW_SESSION} 前完成注册,
+ * 在触发 {@link org.smartboot.socket.StateMachineEnum#SESSION_CLOSED} 前移除。
+ * 查找与遍历均无需加锁,遍历结果为弱一致性视图,插件可借此共享会话索引,无需各自维护 Map。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/10/26
+ */
+public final class SessionRegistry {
+    private final ConcurrentHashMap<Long, AioSession> sessions = new ConcurrentHashMap<>();
+    private final Collection<AioSession> view = Collections.unmodifiableCollection(sessions.values());
+    /**
+     * read 线程负载信息
+     */
+    private final Supplier<WorkerLoad[]> workerLoads;
+
+    SessionRegistry(Supplier<WorkerLoad[]> workerLoads) {
+        this.workerLoads = workerLoads;
+    }
+
+    void register(AioSession session) {
+        sessions.put(session.getId(), session);
+    }
+
+    void unregister(AioSession session) {
+        sessions.remove(session.getId(), session);
+    }
+
+    /**
+     * @param id 会话ID
+     * @return 对应的存活会话,不存在时返回 null
+     */
+    public AioSession get(long id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * @return 存活会话数
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * 遍历存活会话
+     *
+     * @param action 会话处理
+     */
+    public void forEach(Consumer<AioSession> action) {
+        sessions.values().forEach(action);
+    }
+
+    /**
+     * @return 存活会话的只读视图
+     */
+    public Collection<AioSession> sessions() {
+        return view;
+    }
+
+    /**
+     * 获取各 read 线程当前分配的连接数,数组下标即为 read 线程索引。
+     * <p>服务与其他服务共享 AsynchronousChannelGroup 时,统计结果包含其他服务的连接</p>
+     *
+     * @return 各 read 线程的连接数,服务未启动或未采用 smart-socket 提供的 AsynchronousChannelGroup 时返回空数组
+     */
+    public int[] getWorkerSessionCounts() {
+        WorkerLoad[] loads = workerLoads.get();
+        int[] counts = new int[loads.length];
+        for (WorkerLoad load : loads) {
+            counts[load.getIndex()] = load.getConnectionCount();
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: SessionSlot.java
+ * Date: 2022-10-30
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.transport;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 会话状态槽位,用于在 {@link AioSession} 上存放解码器等组件的会话级状态。
+ * <p>
+ * 每个槽位在创建时分配全局唯一的下标,状态直接存储于会话内部的数组中,随会话一同回收,
+ * 无需以会话为键维护全局 Map 并定期清理失效会话。槽位通常声明为静态常量或组件的成员变量,
+ * 同一会话中可能存在多个实例的组件(如解码流水线中的多个协议)需使用成员变量,且组件应长期存活,避免槽位下标持续增长。
+ * </p>
+ * <p>
+ * 槽位状态未做同步控制,应仅在该会话的 read 线程中访问。
+ * 会话关闭时,实现了 {@link AutoCloseable} 的状态对象将被自动关闭,可借此归还内存池中的缓冲区。
+ * </p>
+ *
+ * @param <V> 状态对象类型
+ * @author 三刀
+ * @version V1.0 , 2022/10/30
+ */
+public final class SessionSlot<V> {
+    private static final AtomicInteger INDEX_GENERATOR = new AtomicInteger();
+    /**
+     * 槽位下标
+     */
+    final int index = INDEX_GENERATOR.getAndIncrement();
+    private final String name;
+
+    public SessionSlot(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionSlot{" + name + "}";
+    }
+}
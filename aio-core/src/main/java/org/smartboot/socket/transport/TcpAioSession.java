@@ -10,23 +10,28 @@
 package org.smartboot.socket.transport;
 
 
+import org.smartboot.socket.Encoder;
 import org.smartboot.socket.MessageProcessor;
 import org.smartboot.socket.NetMonitor;
 import org.smartboot.socket.StateMachineEnum;
+import org.smartboot.socket.VirtualBufferFactory;
 import org.smartboot.socket.buffer.BufferPage;
 import org.smartboot.socket.buffer.VirtualBuffer;
 import org.smartboot.socket.enhance.EnhanceAsynchronousChannelProvider;
+import org.smartboot.socket.enhance.EnhanceAsynchronousSocketChannel;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
-import java.util.function.Function;
 
 /**
  * AIO传输层会话。
@@ -110,6 +115,12 @@ final class TcpAioSession extends AioSession {
         }
     };
 
+    /**
+     * 文件输出回调处理,零拷贝方式输出时回调结果为 Long 类型,缓冲方式输出时为 Integer 类型
+     */
+    private static final CompletionHandler<Long, TcpAioSession> TRANSFER_COMPLETION_HANDLER = new TransferCompletionHandler<>();
+    private static final CompletionHandler<Integer, TcpAioSession> BUFFERED_TRANSFER_COMPLETION_HANDLER = new TransferCompletionHandler<>();
+
     /**
      * 底层通信channel对象
      */
@@ -133,43 +144,82 @@ final class TcpAioSession extends AioSession {
      * 写缓冲
      */
     private VirtualBuffer writeBuffer;
+    /**
+     * 正在输出的文件
+     */
+    private FileRegion fileRegion;
+    /**
+     * 当前输出的是否为紧急数据
+     */
+    private boolean urgentWriting;
     /**
      * 同步输入流
      */
     private InputStream inputStream;
+    /**
+     * smart-socket 底层通道,用于将任务提交至 read 线程。非 smart-socket 通道时为 null
+     */
+    private final EnhanceAsynchronousSocketChannel enhanceChannel;
+    /**
+     * 本轮读处理已消耗的消息数、字节数
+     */
+    private int budgetMessages, budgetBytes;
+    /**
+     * 是否处于 channel.read 调用过程中,用于区分 read 线程内联完成的读操作
+     */
+    private boolean reading;
+    /**
+     * 当前会话专属的读缓冲区工厂
+     */
+    private final VirtualBufferFactory readBufferFactory;
+    /**
+     * 读缓冲区的目标容量,0:无需调整
+     */
+    private int readCapacity;
 
     private final BufferPage bufferPage;
     private final IoServerConfig config;
 
     /**
-     * @param channel Socket通道
+     * @param rawChannel 未经 NetMonitor 包装的原始通道
+     * @param channel    Socket通道
      */
-    TcpAioSession(AsynchronousSocketChannel channel, IoServerConfig config, BufferPage bufferPage, Function<BufferPage, VirtualBuffer> function) {
+    TcpAioSession(AsynchronousSocketChannel rawChannel, AsynchronousSocketChannel channel, IoServerConfig config, BufferPage bufferPage, VirtualBufferFactory readBufferFactory) {
         this.channel = channel;
+        this.enhanceChannel = rawChannel instanceof EnhanceAsynchronousSocketChannel ? (EnhanceAsynchronousSocketChannel) rawChannel : null;
         this.config = config;
         this.bufferPage = bufferPage;
-        this.function = function;
+        this.readBufferFactory = readBufferFactory;
         Consumer<WriteBuffer> flushConsumer = var -> {
             if (!semaphore.tryAcquire()) {
                 return;
             }
-            TcpAioSession.this.writeBuffer = var.poll();
-            if (writeBuffer == null) {
+            if (!writeNext()) {
                 semaphore.release();
-            } else {
-                continueWrite(writeBuffer);
             }
         };
-        byteBuf = new WriteBuffer(bufferPage, flushConsumer, config.getWriteBufferSize(), config.getWriteBufferCapacity());
+        Consumer<Boolean> writabilityConsumer = writable -> config.getProcessor().stateEvent(this, writable ? StateMachineEnum.WRITABLE : StateMachineEnum.UNWRITABLE, null);
+        //延迟刷新任务由 read 线程的定时器驱动
+        Consumer<Runnable> flushScheduler = enhanceChannel == null ? null : task -> enhanceChannel.schedule(task, config.getFlushPolicyValue(), TimeUnit.MICROSECONDS);
+        byteBuf = new WriteBuffer(bufferPage, flushConsumer, config, this, writabilityConsumer, flushScheduler);
+        SessionRegistry registry = config.getSessionRegistry();
+        if (registry != null) {
+            registry.register(this);
+        }
         //触发状态机
         config.getProcessor().stateEvent(this, StateMachineEnum.NEW_SESSION, null);
-        doRead();
+        try {
+            doRead();
+        } catch (RuntimeException e) {
+            if (registry != null) {
+                registry.unregister(this);
+            }
+            throw e;
+        }
     }
 
-    private final Function<BufferPage, VirtualBuffer> function;
-
     void doRead() {
-        this.readBuffer = function.apply(bufferPage);
+        this.readBuffer = readBufferFactory.newBuffer(bufferPage);
         this.readBuffer.buffer().flip();
         signalRead();
     }
@@ -183,15 +233,29 @@ final class TcpAioSession extends AioSession {
         if (monitor != null) {
             monitor.afterWrite(this, result);
         }
-        if (writeBuffer == null) {
-            writeBuffer = byteBuf.poll();
-        } else if (!writeBuffer.buffer().hasRemaining()) {
+        if (result > 0) {
+            byteBuf.markWritten();
+        }
+        //紧急数据不计入输出位置
+        if (!urgentWriting) {
+            byteBuf.notifyWritten(result);
+        }
+        if (writeBuffer != null) {
+            if (writeBuffer.buffer().hasRemaining()) {
+                continueWrite(writeBuffer);
+                return;
+            }
             writeBuffer.clean();
-            writeBuffer = byteBuf.poll();
+            writeBuffer = null;
         }
+        outputNext();
+    }
 
-        if (writeBuffer != null) {
-            continueWrite(writeBuffer);
+    /**
+     * 输出队列中的后续数据,无待输出数据时释放输出信号量
+     */
+    private void outputNext() {
+        if (writeNext()) {
             return;
         }
         semaphore.release();
@@ -200,8 +264,115 @@ final class TcpAioSession extends AioSession {
             close();
         } else {
             //也许此时有新的消息通过write方法添加到writeCacheQueue中
-            byteBuf.flush();
+            byteBuf.drain();
+        }
+    }
+
+    /**
+     * 从输出队列中取出下一批数据并输出,优先输出紧急数据
+     *
+     * @return 是否存在待输出的数据
+     */
+    private boolean writeNext() {
+        writeBuffer = byteBuf.pollUrgent();
+        urgentWriting = writeBuffer != null;
+        if (writeBuffer == null) {
+            writeBuffer = byteBuf.poll();
+        }
+        if (writeBuffer != null) {
+            continueWrite(writeBuffer);
+            return true;
+        }
+        fileRegion = byteBuf.pollRegion();
+        if (fileRegion != null) {
+            continueTransfer();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void transferFile(FileChannel file, long position, long count, CompletionHandler<Long, AioSession> handler) throws IOException {
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException("position and count must not be negative");
+        }
+        assertChannel();
+        count = Math.max(0, Math.min(count, file.size() - position));
+        byteBuf.transfer(new FileRegion(this, file, position, count, handler));
+        byteBuf.drain();
+    }
+
+    /**
+     * 输出文件的剩余部分,输出完毕后继续输出队列中的后续数据
+     */
+    private void continueTransfer() {
+        FileRegion region = fileRegion;
+        ByteBuffer buffer = region.buffer == null ? null : region.buffer.buffer();
+        if (region.remaining == 0 && (buffer == null || !buffer.hasRemaining())) {
+            fileRegion = null;
+            try {
+                region.completed();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            outputNext();
+            return;
+        }
+        NetMonitor monitor = config.getMonitor();
+        if (monitor != null) {
+            monitor.beforeWrite(this);
+        }
+        //未经插件包装的 smart-socket 通道支持零拷贝
+        if (enhanceChannel != null && enhanceChannel == channel) {
+            enhanceChannel.transferFrom(region.file, region.position, region.remaining, this, TRANSFER_COMPLETION_HANDLER);
+            return;
+        }
+        if (buffer == null || !buffer.hasRemaining()) {
+            if (buffer == null) {
+                region.buffer = bufferPage.allocate((int) Math.min(config.getWriteBufferSize(), region.remaining));
+                buffer = region.buffer.buffer();
+            }
+            buffer.clear();
+            if (buffer.remaining() > region.remaining) {
+                buffer.limit((int) region.remaining);
+            }
+            int size;
+            try {
+                size = region.file.read(buffer, region.position);
+            } catch (IOException e) {
+                BUFFERED_TRANSFER_COMPLETION_HANDLER.failed(e, this);
+                return;
+            }
+            if (size < 0) {
+                BUFFERED_TRANSFER_COMPLETION_HANDLER.failed(new EOFException("file is truncated"), this);
+                return;
+            }
+            region.position += size;
+            region.remaining -= size;
+            buffer.flip();
+        }
+        channel.write(buffer, 0L, TimeUnit.MILLISECONDS, this, BUFFERED_TRANSFER_COMPLETION_HANDLER);
+    }
+
+    void transferCompleted(long result) {
+        NetMonitor monitor = config.getMonitor();
+        if (monitor != null) {
+            monitor.afterWrite(this, (int) result);
+        }
+        FileRegion region = fileRegion;
+        //会话已关闭
+        if (region == null) {
+            return;
+        }
+        if (result > 0) {
+            byteBuf.markWritten();
         }
+        region.transferred += result;
+        if (region.buffer == null) {
+            region.position += result;
+            region.remaining -= result;
+        }
+        continueTransfer();
     }
 
     /**
@@ -244,27 +415,27 @@ final class TcpAioSession extends AioSession {
                     writeBuffer.clean();
                     writeBuffer = null;
                 }
+                if (fileRegion != null) {
+                    fileRegion.failed(new ClosedChannelException());
+                    fileRegion = null;
+                }
+                releaseSlots();
             } finally {
                 IOUtil.close(channel);
+                SessionRegistry registry = config.getSessionRegistry();
+                if (registry != null) {
+                    registry.unregister(this);
+                }
                 config.getProcessor().stateEvent(this, StateMachineEnum.SESSION_CLOSED, null);
             }
-        } else if ((writeBuffer == null || !writeBuffer.buffer().hasRemaining()) && byteBuf.isEmpty()) {
+        } else if ((writeBuffer == null || !writeBuffer.buffer().hasRemaining()) && fileRegion == null && byteBuf.isEmpty()) {
             close(true);
         } else {
             config.getProcessor().stateEvent(this, StateMachineEnum.SESSION_CLOSING, null);
-            byteBuf.flush();
+            byteBuf.drain();
         }
     }
 
-    /**
-     * 获取当前Session的唯一标识
-     *
-     * @return sessionId
-     */
-    public String getSessionID() {
-        return "aioSession-" + hashCode();
-    }
-
     /**
      * 当前会话是否已失效
      *
@@ -292,7 +463,16 @@ final class TcpAioSession extends AioSession {
             monitor.afterRead(this, result);
         }
         this.eof = result == -1;
+        //由 read 线程异步回调,开启新一轮读处理
+        if (!reading) {
+            budgetMessages = 0;
+            budgetBytes = 0;
+        }
         if (SESSION_STATUS_CLOSED != status) {
+            if (result > 0) {
+                ByteBuffer buffer = this.readBuffer.buffer();
+                readCapacity = readBufferFactory.nextCapacity(buffer.position(), buffer.capacity());
+            }
             this.readBuffer.buffer().flip();
             signalRead();
         }
@@ -306,10 +486,13 @@ final class TcpAioSession extends AioSession {
         if (status == SESSION_STATUS_CLOSED) {
             return;
         }
-        final ByteBuffer readBuffer = this.readBuffer.buffer();
+        //读缓冲区即将变更,此前解码的消息视图失效
+        readGeneration++;
+        ByteBuffer readBuffer = this.readBuffer.buffer();
         final MessageProcessor messageProcessor = config.getProcessor();
         while (readBuffer.hasRemaining() && status == SESSION_STATUS_ENABLED) {
             Object dataEntry;
+            int position = readBuffer.position();
             try {
                 dataEntry = config.getProtocol().decode(readBuffer, this);
             } catch (Exception e) {
@@ -319,6 +502,8 @@ final class TcpAioSession extends AioSession {
             if (dataEntry == null) {
                 break;
             }
+            budgetMessages++;
+            budgetBytes += readBuffer.position() - position;
 
             //处理消息
             try {
@@ -329,6 +514,11 @@ final class TcpAioSession extends AioSession {
             } catch (Exception e) {
                 messageProcessor.stateEvent(this, StateMachineEnum.PROCESS_EXCEPTION, e);
             }
+            readGeneration++;
+            if (isBudgetExhausted()) {
+                yieldRead();
+                return;
+            }
         }
 
         if (eof || status == SESSION_STATUS_CLOSING) {
@@ -340,9 +530,12 @@ final class TcpAioSession extends AioSession {
             return;
         }
 
-        byteBuf.flush();
+        byteBuf.flushBatch();
 
         readBuffer.compact();
+        if (readCapacity > 0 && readCapacity != readBuffer.capacity()) {
+            readBuffer = resizeReadBuffer(readBuffer);
+        }
         //读缓冲区已满
         if (!readBuffer.hasRemaining()) {
             RuntimeException exception = new RuntimeException("readBuffer overflow");
@@ -355,7 +548,113 @@ final class TcpAioSession extends AioSession {
         if (monitor != null) {
             monitor.beforeRead(this);
         }
-        channel.read(readBuffer, 0L, TimeUnit.MILLISECONDS, this, READ_COMPLETION_HANDLER);
+        reading = true;
+        try {
+            channel.read(readBuffer, 0L, TimeUnit.MILLISECONDS, this, READ_COMPLETION_HANDLER);
+        } finally {
+            reading = false;
+        }
+    }
+
+    /**
+     * 按读缓冲区工厂反馈的目标容量重新分配读缓冲区,残留数据超出目标容量时暂不调整
+     *
+     * @param buffer 处于写模式的当前读缓冲区
+     * @return 调整后的读缓冲区
+     */
+    private ByteBuffer resizeReadBuffer(ByteBuffer buffer) {
+        if (buffer.position() >= readCapacity) {
+            return buffer;
+        }
+        VirtualBuffer virtualBuffer = bufferPage.allocate(readCapacity);
+        buffer.flip();
+        virtualBuffer.buffer().put(buffer);
+        this.readBuffer.clean();
+        this.readBuffer = virtualBuffer;
+        readCapacity = 0;
+        return virtualBuffer.buffer();
+    }
+
+    /**
+     * 本轮读处理的预算是否已耗尽
+     */
+    private boolean isBudgetExhausted() {
+        if (enhanceChannel == null) {
+            return false;
+        }
+        int maxMessages = config.getReadBudgetMessages();
+        int maxBytes = config.getReadBudgetBytes();
+        return (maxMessages > 0 && budgetMessages >= maxMessages) || (maxBytes > 0 && budgetBytes >= maxBytes);
+    }
+
+    /**
+     * 让出 read 线程,待同线程中其他就绪的会话处理完毕后再继续本会话的读处理
+     */
+    private void yieldRead() {
+        byteBuf.flushBatch();
+        budgetMessages = 0;
+        budgetBytes = 0;
+        enhanceChannel.yieldTask(this::continueRead);
+    }
+
+    @Override
+    public void resumeRead() {
+        if (enhanceChannel == null) {
+            continueRead();
+        } else {
+            enhanceChannel.execute(this::continueRead);
+        }
+    }
+
+    /**
+     * 继续读处理,异常时关闭会话
+     */
+    private void continueRead() {
+        try {
+            signalRead();
+        } catch (Throwable throwable) {
+            READ_COMPLETION_HANDLER.failed(throwable, this);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeObject(Object msg) throws IOException {
+        Encoder<Object> encoder = (Encoder<Object>) config.getEncoder();
+        if (encoder == null) {
+            throw new IllegalStateException("encoder is not set");
+        }
+        byteBuf.writeObject(msg, encoder, this);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (enhanceChannel == null) {
+            throw new UnsupportedOperationException();
+        }
+        enhanceChannel.execute(() -> runTask(task));
+    }
+
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (enhanceChannel == null) {
+            throw new UnsupportedOperationException();
+        }
+        enhanceChannel.schedule(() -> runTask(task), delay, unit);
+    }
+
+    /**
+     * 在 read 线程中执行业务任务,并输出任务产生的数据
+     */
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            config.getProcessor().stateEvent(this, StateMachineEnum.PROCESS_EXCEPTION, e);
+        }
+        if (status != SESSION_STATUS_CLOSED) {
+            byteBuf.flushBatch();
+        }
     }
 
 
@@ -536,4 +835,32 @@ final class TcpAioSession extends AioSession {
             }
         }
     }
+
+    /**
+     * 文件输出回调处理
+     */
+    private static final class TransferCompletionHandler<V extends Number> implements CompletionHandler<V, TcpAioSession> {
+        @Override
+        public void completed(V result, TcpAioSession aioSession) {
+            try {
+                aioSession.transferCompleted(result.longValue());
+            } catch (Throwable throwable) {
+                failed(throwable, aioSession);
+            }
+        }
+
+        @Override
+        public void failed(Throwable exc, TcpAioSession aioSession) {
+            FileRegion region = aioSession.fileRegion;
+            aioSession.fileRegion = null;
+            if (region != null) {
+                try {
+                    region.failed(exc);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+            WRITE_COMPLETION_HANDLER.failed(exc, aioSession);
+        }
+    }
 }
@@ -9,26 +9,123 @@
 
 package org.smartboot.socket.transport;
 
+import org.smartboot.socket.Encoder;
 import org.smartboot.socket.buffer.BufferPage;
 import org.smartboot.socket.buffer.VirtualBuffer;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
 /**
  * 包装当前会话分配到的虚拟Buffer,提供流式操作方式
+ * <p>
+ * 并发写模式下,业务线程的 write 操作以数据块的形式无锁追加至 MPSC 队列,同一线程连续写入的小数据合并至同一数据块,
+ * 由输出线程在 {@link #poll()} 时批量合并至内存块中输出,适用于多个业务线程同时向一个会话输出数据的场景。
+ * </p>
+ * <p>
+ * 待输出数据超过高水位线时 {@link #isWritable()} 返回 false,回落至低水位线后恢复,业务可据此暂停输出。
+ * 待输出数据达到缓冲区容量上限时默认阻塞写线程,fail-fast 模式下则抛出 {@link BufferOverflowException}。
+ * </p>
+ * <p>
+ * 通过 {@link AioSession#transferFile} 输出的文件以 {@link FileRegion} 的形式插入输出队列,
+ * 位于其后的数据需等待文件输出完毕后才会被 {@link #poll()} 取出。
+ * </p>
+ * <p>
+ * 除内存块写满、显式 flush 外,数据的输出时机由 {@link FlushPolicy} 决定。
+ * </p>
+ * <p>
+ * writeInt、writeVarInt 等方法每次调用均需获取一次锁(并发写模式下为一次入队)并更新待输出字节数,适合零散输出,并非批量输出的快速路径。
+ * 由多个字段构成的报文头应通过 {@link #writeBatch(Consumer)} 或 {@link #writeObject(Object, Encoder)} 编码后整体写入,仅获取一次锁。
+ * </p>
  *
  * @author 三刀
  * @version V1.0 , 2018/11/8
  */
 
 public final class WriteBuffer extends OutputStream {
+    private static final AtomicReferenceFieldUpdater<WriteBuffer, Chunk> TAIL_UPDATER = AtomicReferenceFieldUpdater.newUpdater(WriteBuffer.class, Chunk.class, "tail");
+    private static final AtomicIntegerFieldUpdater<Chunk> LIMIT_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Chunk.class, "limit");
+    /**
+     * 数据块已被输出线程取尽,不可再追加数据
+     */
+    private static final int SEALED = Integer.MIN_VALUE;
+    /**
+     * 并发写模式下暂存小数据的数据块容量,同一线程连续写入的小数据追加至同一数据块
+     */
+    private static final int STAGING_SIZE = 512;
+    /**
+     * 零长度数据块的字节数据,仅用于在并发写模式的队列中登记输出完成回调
+     */
+    private static final byte[] EMPTY_BYTES = new byte[0];
+    /**
+     * writeObject 编码缓冲区的最小初始容量
+     */
+    private static final int ENCODE_BUFFER_SIZE = 64;
+    /**
+     * {@link #writeBatch(Consumer)} 的编码器
+     */
+    private static final Encoder<Consumer<EncodeBuffer>> BATCH_ENCODER = (batch, buffer, session) -> batch.accept(buffer);
+    /**
+     * 并发写模式下编码数值、短字符串的线程内临时缓冲区
+     */
+    private static final ThreadLocal<ByteBuffer> SCRATCH = ThreadLocal.withInitial(() -> ByteBuffer.allocate(STAGING_SIZE));
+    /**
+     * 并发写模式下输出队列积压时,生产者的等待时长
+     */
+    private static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    /**
+     * 未关联服务配置时采用的默认配置
+     */
+    private static final IoServerConfig DEFAULT_CONFIG = new IoServerConfig();
+    /**
+     * 普通数据待输出时,紧急数据连续插队的次数上限
+     */
+    private static final int MAX_URGENT_BURST = 16;
     /**
      * 存储已就绪待输出的数据
      */
-    private final VirtualBuffer[] items;
+    private VirtualBuffer[] items;
+    /**
+     * items 中对应的缓冲块是否结束于报文边界
+     */
+    private boolean[] boundaries;
+    /**
+     * 当前写入 items 的缓冲块是否结束于报文边界
+     */
+    private boolean sealing;
+    /**
+     * 普通数据的输出进度是否处于报文边界,仅此时允许插入紧急数据
+     */
+    private boolean lastBoundary = true;
+    /**
+     * 默认写模式下,最近一次 flush 时的 writePosition
+     */
+    private long flushPosition;
+    /**
+     * 紧急数据队列
+     */
+    private ArrayDeque<VirtualBuffer> urgentItems;
+    /**
+     * 紧急数据连续插队的次数
+     */
+    private int urgentBurst;
+    /**
+     * 待输出的紧急数据块数量
+     */
+    private volatile int urgentCount;
 
     /**
      * 为当前 WriteBuffer 提供数据存放功能的缓存页
@@ -61,17 +158,155 @@ public final class WriteBuffer extends OutputStream {
     /**
      * 当前WriteBuffer是否已关闭
      */
-    private boolean closed = false;
+    private volatile boolean closed = false;
+    /**
+     * 因 items 已满而阻塞的写线程
+     */
+    private Thread blockedWriter;
+    /**
+     * 是否启用并发写模式
+     */
+    private final boolean concurrent;
+    /**
+     * 并发写模式下的队列头,仅由输出线程访问
+     */
+    private Chunk head;
+    /**
+     * 并发写模式下的队列尾,由生产者通过CAS追加
+     */
+    private volatile Chunk tail;
+    /**
+     * 待输出的字节数
+     */
+    private final AtomicInteger pendingBytes = new AtomicInteger();
+    /**
+     * 累计出队的字节数
+     */
+    private long dequeuedBytes;
+    /**
+     * 积压检查点:累计出队字节数达到该值时,{@link #checkpointTime} 之前入队的数据均已出队
+     */
+    private long checkpoint;
+    /**
+     * 检查点的记录时间(纳秒)
+     */
+    private volatile long checkpointTime;
+    /**
+     * 当前积压数据中最早入队数据的入队时间下限(纳秒)
+     */
+    private volatile long oldestPendingTime;
+    /**
+     * 本轮积压的开始时间(纳秒)
+     */
+    private volatile long backlogTime;
+    /**
+     * 最近一次成功输出数据的时间(纳秒)
+     */
+    private volatile long lastWriteTime = System.nanoTime();
+    /**
+     * 允许积压的字节数上限
+     */
+    private final int maxPendingBytes;
+    /**
+     * 高水位线、低水位线,0:不启用
+     */
+    private final int highWaterMark, lowWaterMark;
+    /**
+     * 达到容量上限时是否直接失败而非阻塞写线程
+     */
+    private final boolean failFast;
+    /**
+     * 当前是否可写
+     */
+    private final AtomicBoolean writable = new AtomicBoolean(true);
+    /**
+     * 可写状态变更回调
+     */
+    private final Consumer<Boolean> writabilityConsumer;
     /**
-     * 辅助8字节以内输出的缓存组数
+     * 默认写模式下待输出的文件队列
      */
-    private byte[] cacheByte;
+    private ArrayDeque<FileRegion> regions;
+    /**
+     * 默认写模式下,累计存入、取出 items 的缓冲块数量
+     */
+    private long putCount, takeCount;
+    /**
+     * 尚未被取出的文件数量
+     */
+    private final AtomicInteger pendingRegions = new AtomicInteger();
+    /**
+     * 自动刷新策略
+     */
+    private final FlushPolicy flushPolicy;
+    /**
+     * SIZE_THRESHOLD 策略下触发输出的字节数
+     */
+    private final int flushThreshold;
+    /**
+     * MAX_DELAY 策略下用于提交延迟刷新任务
+     */
+    private final Consumer<Runnable> flushScheduler;
+    /**
+     * 是否已提交延迟刷新任务
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    /**
+     * 当前 WriteBuffer 所属会话,为 null 时不支持输出完成回调
+     */
+    private final AioSession session;
+    /**
+     * 已存入输出队列的字节数。默认写模式下于 write 时累加,并发写模式下于 poll 时累加
+     */
+    private long writePosition;
+    /**
+     * 已写入内核缓冲区的字节数,仅由输出线程更新
+     */
+    private volatile long flushedPosition;
+    /**
+     * 输出完成回调队列,按输出位置升序排列
+     */
+    private long[] listenerPositions;
+    private CompletionHandler<Long, AioSession>[] listenerHandlers;
+    private int listenerHead;
+    private volatile int listenerCount;
 
     WriteBuffer(BufferPage bufferPage, Consumer<WriteBuffer> consumer, int chunkSize, int capacity) {
+        this(bufferPage, consumer, chunkSize, capacity, DEFAULT_CONFIG, null, null, null);
+    }
+
+    /**
+     * @param session             所属会话
+     * @param writabilityConsumer 可写状态变更回调
+     * @param flushScheduler      延迟刷新任务的执行器,为 null 时 MAX_DELAY 策略退化为 IMMEDIATE
+     */
+    WriteBuffer(BufferPage bufferPage, Consumer<WriteBuffer> consumer, IoServerConfig config, AioSession session,
+                Consumer<Boolean> writabilityConsumer, Consumer<Runnable> flushScheduler) {
+        this(bufferPage, consumer, config.getWriteBufferSize(), config.getWriteBufferCapacity(), config, session, writabilityConsumer, flushScheduler);
+    }
+
+    private WriteBuffer(BufferPage bufferPage, Consumer<WriteBuffer> consumer, int chunkSize, int capacity, IoServerConfig config,
+                        AioSession session, Consumer<Boolean> writabilityConsumer, Consumer<Runnable> flushScheduler) {
         this.bufferPage = bufferPage;
         this.consumer = consumer;
-        this.items = new VirtualBuffer[capacity];
         this.chunkSize = chunkSize;
+        this.concurrent = config.isConcurrentWrite();
+        this.maxPendingBytes = (int) Math.min(Integer.MAX_VALUE, (long) chunkSize * capacity);
+        this.lowWaterMark = config.getWriteLowWaterMark();
+        this.highWaterMark = config.getWriteHighWaterMark();
+        this.failFast = config.isWriteFailFast();
+        this.session = session;
+        this.writabilityConsumer = writabilityConsumer;
+        FlushPolicy flushPolicy = config.getFlushPolicy();
+        this.flushPolicy = flushPolicy == FlushPolicy.MAX_DELAY && flushScheduler == null ? FlushPolicy.IMMEDIATE : flushPolicy;
+        this.flushThreshold = config.getFlushPolicyValue();
+        this.flushScheduler = flushScheduler;
+        if (concurrent) {
+            this.head = this.tail = new Chunk(null, 0, 0, null);
+        } else {
+            this.items = new VirtualBuffer[capacity];
+            this.boundaries = new boolean[capacity];
+        }
     }
 
     /**
@@ -94,17 +329,38 @@ public final class WriteBuffer extends OutputStream {
      * @throws IOException IO异常
      */
     public void writeShort(short v) throws IOException {
-        initCacheBytes();
-        cacheByte[0] = (byte) ((v >>> 8) & 0xFF);
-        cacheByte[1] = (byte) (v & 0xFF);
-        write(cacheByte, 0, 2);
+        writeFixed(v, Short.BYTES, false);
+    }
+
+    /**
+     * 以小端字节序输出short数值
+     *
+     * @param v short数值
+     * @throws IOException IO异常
+     */
+    public void writeShortLE(short v) throws IOException {
+        writeFixed(v, Short.BYTES, true);
     }
 
     /**
      * @param b 待输出数值
      * @see #write(int)
      */
-    public synchronized void writeByte(byte b) {
+    public void writeByte(byte b) {
+        if (concurrent) {
+            offerCopy(scratch().put(b).array(), 0, 1);
+            return;
+        }
+        checkOverflow(1);
+        synchronized (this) {
+            awaitBlockedWriter();
+            writeByte0(b);
+            writePosition++;
+        }
+        autoFlush(increasePending(1));
+    }
+
+    private void writeByte0(byte b) {
         if (writeInBuf == null) {
             writeInBuf = bufferPage.allocate(chunkSize);
         }
@@ -123,23 +379,59 @@ public final class WriteBuffer extends OutputStream {
         writeInBuf.buffer().flip();
         VirtualBuffer virtualBuffer = writeInBuf;
         writeInBuf = null;
+        putItem(virtualBuffer);
+    }
+
+    /**
+     * 将已就绪的缓冲块存入 items,items 已满时阻塞等待
+     */
+    private void putItem(VirtualBuffer virtualBuffer) {
         try {
-            while (count == items.length) {
-                this.wait();
-                //防止因close诱发内存泄露
-                if (closed) {
-                    virtualBuffer.clean();
-                    return;
+            //fail-fast 模式下写入量已受字节数上限约束,扩容 items 以避免阻塞
+            if (failFast && count == items.length) {
+                growItems();
+            }
+            if (count == items.length) {
+                //阻塞期间其他线程不可写入,避免当前 write 操作的剩余数据被插队
+                blockedWriter = Thread.currentThread();
+                while (count == items.length) {
+                    this.wait();
+                    //防止因close诱发内存泄露
+                    if (closed) {
+                        virtualBuffer.clean();
+                        return;
+                    }
                 }
             }
 
             items[putIndex] = virtualBuffer;
+            boundaries[putIndex] = sealing;
             if (++putIndex == items.length) {
                 putIndex = 0;
             }
             count++;
+            putCount++;
         } catch (InterruptedException e1) {
             throw new RuntimeException(e1);
+        } finally {
+            //仅在发生过阻塞时唤醒等待中的写线程
+            if (blockedWriter != null) {
+                blockedWriter = null;
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 等待阻塞中的写操作完成,保证单次 write 操作输出的数据连续
+     */
+    private void awaitBlockedWriter() {
+        try {
+            while (blockedWriter != null && blockedWriter != Thread.currentThread() && !closed) {
+                this.wait();
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
         }
     }
 
@@ -150,12 +442,17 @@ public final class WriteBuffer extends OutputStream {
      * @throws IOException IO异常
      */
     public void writeInt(int v) throws IOException {
-        initCacheBytes();
-        cacheByte[0] = (byte) ((v >>> 24) & 0xFF);
-        cacheByte[1] = (byte) ((v >>> 16) & 0xFF);
-        cacheByte[2] = (byte) ((v >>> 8) & 0xFF);
-        cacheByte[3] = (byte) (v & 0xFF);
-        write(cacheByte, 0, 4);
+        writeFixed(v, Integer.BYTES, false);
+    }
+
+    /**
+     * 以小端字节序输出int数值,占用4个字节
+     *
+     * @param v int数值
+     * @throws IOException IO异常
+     */
+    public void writeIntLE(int v) throws IOException {
+        writeFixed(v, Integer.BYTES, true);
     }
 
     /**
@@ -165,23 +462,264 @@ public final class WriteBuffer extends OutputStream {
      * @throws IOException IO异常
      */
     public void writeLong(long v) throws IOException {
-        initCacheBytes();
-        cacheByte[0] = (byte) ((v >>> 56) & 0xFF);
-        cacheByte[1] = (byte) ((v >>> 48) & 0xFF);
-        cacheByte[2] = (byte) ((v >>> 40) & 0xFF);
-        cacheByte[3] = (byte) ((v >>> 32) & 0xFF);
-        cacheByte[4] = (byte) ((v >>> 24) & 0xFF);
-        cacheByte[5] = (byte) ((v >>> 16) & 0xFF);
-        cacheByte[6] = (byte) ((v >>> 8) & 0xFF);
-        cacheByte[7] = (byte) (v & 0xFF);
-        write(cacheByte, 0, 8);
+        writeFixed(v, Long.BYTES, false);
+    }
+
+    /**
+     * 以小端字节序输出long数值,占用8个字节
+     *
+     * @param v long数值
+     * @throws IOException IO异常
+     */
+    public void writeLongLE(long v) throws IOException {
+        writeFixed(v, Long.BYTES, true);
+    }
+
+    /**
+     * 以无符号 varint 编码输出int数值,占用1~5个字节
+     *
+     * @param v int数值
+     * @throws IOException IO异常
+     */
+    public void writeVarInt(int v) throws IOException {
+        writeVarLong(v & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 以 zigzag + varint 编码输出有符号int数值,绝对值较小的负数同样占用较少的字节
+     *
+     * @param v int数值
+     * @throws IOException IO异常
+     */
+    public void writeSignedVarInt(int v) throws IOException {
+        writeVarLong(EncodeUtils.zigZag(v));
+    }
+
+    /**
+     * 以 zigzag + varint 编码输出有符号long数值
+     *
+     * @param v long数值
+     * @throws IOException IO异常
+     */
+    public void writeSignedVarLong(long v) throws IOException {
+        writeVarLong(EncodeUtils.zigZag(v));
+    }
+
+    /**
+     * 以无符号 varint 编码输出long数值,占用1~10个字节
+     *
+     * @param v long数值
+     * @throws IOException IO异常
+     */
+    public void writeVarLong(long v) throws IOException {
+        int size = EncodeUtils.varLongSize(v);
+        if (concurrent) {
+            ByteBuffer scratch = scratch();
+            EncodeUtils.putVarLong(scratch, v);
+            offerCopy(scratch.array(), 0, size);
+            return;
+        }
+        checkOverflow(size);
+        synchronized (this) {
+            awaitBlockedWriter();
+            EncodeUtils.putVarLong(writableBuffer(size), v);
+            flushWriteBuffer(false);
+            writePosition += size;
+        }
+        autoFlush(increasePending(size));
+    }
+
+    /**
+     * 将字符串直接编码至输出缓冲区。
+     * <p>
+     * UTF-8、ISO-8859-1、US-ASCII 字符集无需构造中间数组,其余字符集等同于 write(value.toString().getBytes(charset))。
+     * </p>
+     *
+     * @param value   字符串
+     * @param charset 字符集
+     * @throws IOException IO异常
+     */
+    public void writeString(CharSequence value, Charset charset) throws IOException {
+        if (!EncodeUtils.isSupported(charset)) {
+            write(value.toString().getBytes(charset));
+            return;
+        }
+        int size = EncodeUtils.encodedLength(value, charset);
+        if (size == 0) {
+            return;
+        }
+        if (concurrent) {
+            if (closed) {
+                throw new IOException("writeBuffer has closed");
+            }
+            if (size <= STAGING_SIZE) {
+                ByteBuffer scratch = scratch();
+                EncodeUtils.encode(value, charset, scratch);
+                offerCopy(scratch.array(), 0, size);
+            } else {
+                ByteBuffer bytes = ByteBuffer.allocate(size);
+                EncodeUtils.encode(value, charset, bytes);
+                offer(new Chunk(bytes.array(), 0, size, null));
+            }
+            return;
+        }
+        checkOverflow(size);
+        synchronized (this) {
+            awaitBlockedWriter();
+            EncodeUtils.encode(value, charset, writableBuffer(size));
+            flushWriteBuffer(false);
+            writePosition += size;
+        }
+        autoFlush(increasePending(size));
+    }
+
+    /**
+     * 输出定长数值,默认写模式下直接写入 writeInBuf
+     *
+     * @param v            待输出数值,取低 size 个字节
+     * @param size         字节数:2/4/8
+     * @param littleEndian 是否采用小端字节序
+     */
+    private void writeFixed(long v, int size, boolean littleEndian) throws IOException {
+        if (concurrent) {
+            ByteBuffer scratch = scratch();
+            putFixed(scratch, v, size, littleEndian);
+            offerCopy(scratch.array(), 0, size);
+            return;
+        }
+        checkOverflow(size);
+        synchronized (this) {
+            awaitBlockedWriter();
+            putFixed(writableBuffer(size), v, size, littleEndian);
+            flushWriteBuffer(false);
+            writePosition += size;
+        }
+        autoFlush(increasePending(size));
+    }
+
+    private static void putFixed(ByteBuffer buffer, long v, int size, boolean littleEndian) {
+        switch (size) {
+            case Short.BYTES:
+                buffer.putShort(littleEndian ? Short.reverseBytes((short) v) : (short) v);
+                break;
+            case Integer.BYTES:
+                buffer.putInt(littleEndian ? Integer.reverseBytes((int) v) : (int) v);
+                break;
+            default:
+                buffer.putLong(littleEndian ? Long.reverseBytes(v) : v);
+        }
+    }
+
+    /**
+     * 获取至少还能容纳 size 个字节的 writeInBuf,剩余空间不足时先将其存入输出队列。
+     * 调用方写入数据后需执行 flushWriteBuffer(false)
+     */
+    private ByteBuffer writableBuffer(int size) throws IOException {
+        if (closed) {
+            throw new IOException("writeBuffer has closed");
+        }
+        if (writeInBuf != null && writeInBuf.buffer().remaining() < size) {
+            flushWriteBuffer(true);
+        }
+        if (writeInBuf != null && writeInBuf.buffer().remaining() < size) {
+            writeInBuf.clean();
+            writeInBuf = null;
+        }
+        if (writeInBuf == null) {
+            writeInBuf = bufferPage.allocate(Math.max(chunkSize, size));
+        }
+        return writeInBuf.buffer();
     }
 
     @Override
-    public synchronized void write(byte[] b, int off, int len) throws IOException {
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        if (concurrent) {
+            if (closed) {
+                throw new IOException("writeBuffer has closed");
+            }
+            offerCopy(b, off, len);
+            return;
+        }
+        checkOverflow(len);
+        synchronized (this) {
+            awaitBlockedWriter();
+            write0(b, off, len);
+            writePosition += len;
+        }
+        autoFlush(increasePending(len));
+    }
+
+    /**
+     * 输出数据,待数据全部写入内核缓冲区后回调 handler。
+     * <p>
+     * 回调参数为该数据末尾在会话输出流中的位置,即截至该数据累计经由 WriteBuffer 输出的字节数(不含 transferFile 输出的文件)。
+     * handler 不持有状态时可在多次输出间复用,一次写操作完成的多个回调在输出线程中依次触发。
+     * 会话关闭时尚未完成的回调将收到 {@link ClosedChannelException}。
+     * len 为 0 时,回调在此前写入的数据全部输出后触发,可用于感知输出进度。
+     * </p>
+     *
+     * @param b       待输出数据
+     * @param off     b的起始位点
+     * @param len     从b中输出的数据长度
+     * @param handler 输出完成回调
+     * @throws IOException 如果发生 I/O 错误
+     */
+    public void write(byte[] b, int off, int len, CompletionHandler<Long, AioSession> handler) throws IOException {
+        if (handler == null) {
+            write(b, off, len);
+            return;
+        }
+        if (session == null) {
+            throw new UnsupportedOperationException();
+        }
+        if (concurrent) {
+            if (closed) {
+                throw new IOException("writeBuffer has closed");
+            }
+            byte[] copy = len == 0 ? EMPTY_BYTES : new byte[len];
+            System.arraycopy(b, off, copy, 0, len);
+            Chunk chunk = new Chunk(copy, 0, len, null);
+            chunk.handler = handler;
+            offer(chunk);
+            //零长度数据不计入待输出字节数,需主动触发输出线程登记回调
+            if (len == 0) {
+                consumer.accept(this);
+            }
+            return;
+        }
+        checkOverflow(len);
+        synchronized (this) {
+            awaitBlockedWriter();
+            if (len > 0) {
+                write0(b, off, len);
+            } else if (closed) {
+                throw new IOException("writeBuffer has closed");
+            }
+            writePosition += len;
+            addListener(writePosition, handler);
+        }
         if (len == 0) {
+            //此前的数据可能均已输出,不会再有输出完成事件触发该回调
+            notifyListeners();
             return;
         }
+        autoFlush(increasePending(len));
+    }
+
+    /**
+     * @param b       待输出数据
+     * @param handler 输出完成回调
+     * @throws IOException 如果发生 I/O 错误
+     * @see #write(byte[], int, int, CompletionHandler)
+     */
+    public void write(byte[] b, CompletionHandler<Long, AioSession> handler) throws IOException {
+        write(b, 0, b.length, handler);
+    }
+
+    private void write0(byte[] b, int off, int len) throws IOException {
         if (writeInBuf == null) {
             writeInBuf = bufferPage.allocate(Math.max(chunkSize, len));
         }
@@ -198,7 +736,7 @@ public final class WriteBuffer extends OutputStream {
             writeBuffer.put(b, off, remaining);
             flushWriteBuffer(true);
             if (len > remaining) {
-                write(b, off + remaining, len - remaining);
+                write0(b, off + remaining, len - remaining);
             }
         }
     }
@@ -207,35 +745,162 @@ public final class WriteBuffer extends OutputStream {
         write(VirtualBuffer.wrap(buffer));
     }
 
-    public synchronized void write(VirtualBuffer virtualBuffer) {
-        if (writeInBuf != null && !virtualBuffer.buffer().isDirect() && writeInBuf.buffer().remaining() > virtualBuffer.buffer().remaining()) {
-            writeInBuf.buffer().put(virtualBuffer.buffer());
-            virtualBuffer.clean();
-        } else {
-            if (writeInBuf != null) {
-                flushWriteBuffer(true);
+    public void write(VirtualBuffer virtualBuffer) {
+        if (concurrent) {
+            if (closed) {
+                virtualBuffer.clean();
+                return;
             }
-            virtualBuffer.buffer().compact();
-            writeInBuf = virtualBuffer;
+            ByteBuffer src = virtualBuffer.buffer();
+            int size = src.remaining();
+            //小数据拷贝至当前线程的数据块,与前后写入的数据合并输出
+            if (size < STAGING_SIZE) {
+                ByteBuffer scratch = scratch();
+                scratch.put(src);
+                virtualBuffer.clean();
+                offerCopy(scratch.array(), 0, size);
+            } else {
+                offer(new Chunk(null, 0, size, virtualBuffer));
+            }
+            return;
         }
-        flushWriteBuffer(false);
+        int size = virtualBuffer.buffer().remaining();
+        checkOverflow(size);
+        synchronized (this) {
+            awaitBlockedWriter();
+            write0(virtualBuffer);
+            writePosition += size;
+        }
+        autoFlush(increasePending(size));
     }
 
     /**
-     * 初始化8字节的缓存数值
+     * 将业务持有的缓冲区原样存入输出队列,不做任何拷贝。
+     * <p>
+     * 调用后缓冲区的所有权移交至 WriteBuffer,业务不可再访问该缓冲区,其 position 至 limit 之间的数据即为待输出内容。
+     * 数据输出完毕后缓冲区通过 {@link VirtualBuffer#clean()} 归还至所属的 BufferPage,
+     * 适用于预先序列化至内存池 direct 缓冲区的数据。
+     * </p>
+     *
+     * @param virtualBuffer 待输出的缓冲区
+     * @throws IOException WriteBuffer 已关闭
      */
-    private void initCacheBytes() {
-        if (cacheByte == null) {
-            cacheByte = new byte[8];
+    public void enqueue(VirtualBuffer virtualBuffer) throws IOException {
+        int size = virtualBuffer.buffer().remaining();
+        if (closed || size == 0) {
+            virtualBuffer.clean();
+            if (closed) {
+                throw new IOException("writeBuffer has closed");
+            }
+            return;
+        }
+        if (concurrent) {
+            offer(new Chunk(null, 0, size, virtualBuffer));
+            return;
+        }
+        checkOverflow(size);
+        synchronized (this) {
+            awaitBlockedWriter();
+            //此前写入的数据需先于该缓冲区输出
+            if (writeInBuf != null && writeInBuf.buffer().position() > 0) {
+                flushWriteBuffer(true);
+            }
+            putItem(virtualBuffer);
+            writePosition += size;
         }
+        autoFlush(increasePending(size));
     }
 
     /**
-     * 写入内容并刷新缓冲区。在{@link org.smartboot.socket.MessageProcessor#process(AioSession, Object)}执行的write操作可无需调用该方法，业务执行完毕后框架本身会自动触发flush。
-     * 调用该方法后数据会及时的输出到对端，如果再循环体中通过该方法往某个通道中写入数据将无法获得最佳性能表现，
+     * 通过编码器将消息的所有字段序列化至内存池分配的缓冲区,再一次性存入输出队列。
+     * <p>
+     * 编码过程无需持有锁,适用于由多个字段构成的消息头:逐个调用 writeInt 等方法每个字段均需获取一次锁,而该方法仅需一次。
+     * </p>
      *
-     * @param b 待输出数据
-     * @throws IOException 如果发生 I/O 错误
+     * @param msg     待输出的消息
+     * @param encoder 消息编码器
+     * @throws IOException WriteBuffer 已关闭
+     */
+    public <T> void writeObject(T msg, Encoder<T> encoder) throws IOException {
+        writeObject(msg, encoder, session);
+    }
+
+    /**
+     * 批量输出多个字段,回调中写入 {@link EncodeBuffer} 的数据作为整体加入输出队列。
+     * <p>与逐字段调用 writeInt 等方法相比,整批数据仅获取一次锁、更新一次待输出字节数,且在并发写模式下保持连续</p>
+     *
+     * @param batch 字段写入回调
+     * @throws IOException WriteBuffer 已关闭
+     */
+    public void writeBatch(Consumer<EncodeBuffer> batch) throws IOException {
+        writeObject(batch, BATCH_ENCODER, session);
+    }
+
+    /**
+     * 通过编码器将消息直接序列化至内存池分配的缓冲区,再移交至输出队列
+     */
+    <T> void writeObject(T msg, Encoder<T> encoder, AioSession session) throws IOException {
+        if (closed) {
+            throw new IOException("writeBuffer has closed");
+        }
+        //按当前内存块的剩余空间分配,编码结果可整体拷贝合并至内存块中
+        VirtualBuffer current = writeInBuf;
+        int capacity = current == null ? 0 : Math.min(current.buffer().remaining(), chunkSize);
+        EncodeBuffer buffer = new EncodeBuffer(bufferPage, Math.max(capacity, ENCODE_BUFFER_SIZE));
+        try {
+            encoder.encode(msg, buffer, session);
+        } catch (RuntimeException e) {
+            buffer.release();
+            throw e;
+        }
+        VirtualBuffer virtualBuffer = buffer.finish();
+        if (virtualBuffer.buffer().hasRemaining()) {
+            write(virtualBuffer);
+        } else {
+            virtualBuffer.clean();
+        }
+    }
+
+    private void write0(VirtualBuffer virtualBuffer) {
+        ByteBuffer src = virtualBuffer.buffer();
+        //不小于内存块的缓冲区直接接管,避免拷贝
+        if (src.remaining() >= chunkSize) {
+            if (writeInBuf != null) {
+                flushWriteBuffer(true);
+            }
+            if (writeInBuf != null) {
+                writeInBuf.clean();
+            }
+            src.compact();
+            writeInBuf = virtualBuffer;
+            flushWriteBuffer(false);
+            return;
+        }
+        //小数据拷贝至当前内存块,与前后写入的数据合并输出
+        while (src.hasRemaining()) {
+            if (writeInBuf == null) {
+                writeInBuf = bufferPage.allocate(chunkSize);
+            }
+            ByteBuffer writeBuffer = writeInBuf.buffer();
+            if (writeBuffer.remaining() >= src.remaining()) {
+                writeBuffer.put(src);
+            } else {
+                int limit = src.limit();
+                src.limit(src.position() + writeBuffer.remaining());
+                writeBuffer.put(src);
+                src.limit(limit);
+            }
+            flushWriteBuffer(false);
+        }
+        virtualBuffer.clean();
+    }
+
+    /**
+     * 写入内容并刷新缓冲区。在{@link org.smartboot.socket.MessageProcessor#process(AioSession, Object)}执行的write操作可无需调用该方法，业务执行完毕后框架本身会自动触发flush。
+     * 调用该方法后数据会及时的输出到对端，如果再循环体中通过该方法往某个通道中写入数据将无法获得最佳性能表现，
+     *
+     * @param b 待输出数据
+     * @throws IOException 如果发生 I/O 错误
      */
     public void writeAndFlush(byte[] b) throws IOException {
         if (b == null) {
@@ -256,12 +921,418 @@ public final class WriteBuffer extends OutputStream {
         flush();
     }
 
+    /**
+     * 将文件插入输出队列,位于其后写入的数据需等待文件输出完毕
+     */
+    void transfer(FileRegion region) throws IOException {
+        if (closed) {
+            throw new IOException("writeBuffer has closed");
+        }
+        pendingRegions.incrementAndGet();
+        if (concurrent) {
+            Chunk chunk = new Chunk(null, 0, 0, null);
+            chunk.region = region;
+            link(chunk);
+            return;
+        }
+        synchronized (this) {
+            awaitBlockedWriter();
+            //将此前写入的数据封装为独立的缓冲块,与文件之后写入的数据隔开
+            if (writeInBuf != null && writeInBuf.buffer().position() > 0) {
+                flushWriteBuffer(true);
+            }
+            if (closed) {
+                pendingRegions.decrementAndGet();
+                throw new IOException("writeBuffer has closed");
+            }
+            if (regions == null) {
+                regions = new ArrayDeque<>();
+            }
+            region.barrier = putCount;
+            regions.add(region);
+        }
+    }
+
+    private static ByteBuffer scratch() {
+        ByteBuffer scratch = SCRATCH.get();
+        scratch.clear();
+        return scratch;
+    }
+
+    /**
+     * 并发写模式下,拷贝并输出数据。
+     * <p>
+     * 队尾数据块由当前线程创建且尚有余量时直接追加,与输出线程之间通过 CAS 更新 limit 协调;
+     * 数据块被输出线程取尽后即被封存,追加失败则改为创建新的数据块。同一线程连续写入的小数据因此合并为一个数据块,无需逐次分配。
+     * </p>
+     */
+    private void offerCopy(byte[] src, int off, int len) {
+        awaitCapacity(len);
+        Chunk chunk = tail;
+        byte[] bytes = chunk.bytes;
+        if (chunk.owner == Thread.currentThread() && bytes != null) {
+            int limit = chunk.limit;
+            if (limit >= 0 && bytes.length - limit >= len) {
+                System.arraycopy(src, off, bytes, limit, len);
+                if (LIMIT_UPDATER.compareAndSet(chunk, limit, limit + len)) {
+                    afterOffer(len);
+                    return;
+                }
+            }
+        }
+        if (len < STAGING_SIZE) {
+            bytes = new byte[STAGING_SIZE];
+            System.arraycopy(src, off, bytes, 0, len);
+            link(new Chunk(bytes, 0, len, null, Thread.currentThread()));
+        } else {
+            bytes = new byte[len];
+            System.arraycopy(src, off, bytes, 0, len);
+            link(new Chunk(bytes, 0, len, null));
+        }
+        afterOffer(len);
+    }
+
+    /**
+     * 并发写模式下,将数据块无锁追加至队列尾部
+     */
+    private void offer(Chunk chunk) {
+        int size = chunk.limit - chunk.offset;
+        awaitCapacity(size);
+        link(chunk);
+        afterOffer(size);
+    }
+
+    private void link(Chunk chunk) {
+        Chunk prev = TAIL_UPDATER.getAndSet(this, chunk);
+        prev.next = chunk;
+    }
+
+    /**
+     * 并发写模式下,输出队列积压时等待输出线程消费,fail-fast 模式下直接失败
+     */
+    private void awaitCapacity(int size) {
+        if (failFast) {
+            checkOverflow(size);
+            return;
+        }
+        while (pendingBytes.get() >= maxPendingBytes && !closed) {
+            consumer.accept(this);
+            LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+        }
+    }
+
+    /**
+     * 数据入队后计数并按刷新策略触发输出。先入队再计数,保证输出线程感知到待输出数据时该数据已可见
+     */
+    private void afterOffer(int size) {
+        int pending = increasePending(size);
+        if (pending >= chunkSize) {
+            consumer.accept(this);
+        } else {
+            autoFlush(pending);
+        }
+    }
+
+    /**
+     * write 操作完成后按刷新策略触发输出
+     *
+     * @param pending 当前待输出字节数
+     */
+    private void autoFlush(int pending) {
+        switch (flushPolicy) {
+            case IMMEDIATE:
+                consumer.accept(this);
+                break;
+            case SIZE_THRESHOLD:
+                if (pending >= flushThreshold) {
+                    consumer.accept(this);
+                }
+                break;
+            case MAX_DELAY:
+                scheduleFlush();
+                break;
+            default:
+        }
+    }
+
+    /**
+     * 提交延迟刷新任务,同一时刻至多存在一个
+     */
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushScheduler.accept(() -> {
+                flushScheduled.set(false);
+                if (!closed) {
+                    consumer.accept(this);
+                }
+            });
+        }
+    }
+
+    /**
+     * 一轮读处理或任务执行结束时按刷新策略输出,MAX_DELAY 策略下交由定时器输出
+     */
+    void flushBatch() {
+        if (flushPolicy != FlushPolicy.MAX_DELAY) {
+            flush();
+        } else if (!isEmpty()) {
+            markBoundary();
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * 将普通数据的当前写入位置记录为报文边界,紧急数据仅在报文边界处插队
+     */
+    private void markBoundary() {
+        if (concurrent) {
+            Chunk tail = this.tail;
+            //当前线程追加中的数据块直接记录边界位置,记录后数据块仍未封存则由输出线程识别
+            if (tail.owner == Thread.currentThread() && tail.limit >= 0) {
+                tail.mark = tail.limit;
+                if (tail.limit >= 0) {
+                    return;
+                }
+            }
+            if (!tail.boundary) {
+                Chunk chunk = new Chunk(null, 0, 0, null);
+                chunk.boundary = true;
+                link(chunk);
+            }
+            return;
+        }
+        synchronized (this) {
+            awaitBlockedWriter();
+            flushPosition = writePosition;
+            if (writeInBuf != null && writeInBuf.buffer().position() > 0) {
+                //存在待插队的紧急数据,将此前的数据封装为独立的缓冲块
+                if (urgentCount > 0) {
+                    sealing = true;
+                    try {
+                        flushWriteBuffer(true);
+                    } finally {
+                        sealing = false;
+                    }
+                }
+            } else if (regions != null && !regions.isEmpty() && regions.peekLast().barrier == putCount) {
+                regions.peekLast().boundary = true;
+            } else if (count > 0) {
+                boundaries[(putIndex == 0 ? items.length : putIndex) - 1] = true;
+            } else {
+                lastBoundary = true;
+            }
+        }
+    }
+
+    /**
+     * fail-fast 模式下,待输出数据超出容量上限则直接失败
+     */
+    private void checkOverflow(int size) {
+        if (failFast && pendingBytes.get() + size > maxPendingBytes) {
+            throw new BufferOverflowException();
+        }
+    }
+
+    /**
+     * 累加待输出字节数,超过高水位线时切换为不可写状态
+     *
+     * @return 当前待输出字节数
+     */
+    private int increasePending(int size) {
+        int pending = pendingBytes.addAndGet(size);
+        //开始新一轮积压
+        if (size > 0 && pending == size) {
+            long now = System.nanoTime();
+            backlogTime = now;
+            oldestPendingTime = now;
+            checkpointTime = now;
+        }
+        if (highWaterMark > 0 && pending >= highWaterMark && writable.compareAndSet(true, false)) {
+            writabilityConsumer.accept(false);
+            //输出线程可能已在状态切换前完成消费,需再次确认
+            decreasePending(0);
+        }
+        return pending;
+    }
+
+    /**
+     * 扣减待输出字节数,回落至低水位线时恢复可写状态
+     */
+    private void decreasePending(int size) {
+        int pending = pendingBytes.addAndGet(-size);
+        if (size > 0) {
+            dequeuedBytes += size;
+            //检查点之前入队的数据均已出队,剩余数据皆入队于检查点之后
+            if (dequeuedBytes >= checkpoint) {
+                oldestPendingTime = checkpointTime;
+                checkpointTime = System.nanoTime();
+                checkpoint = dequeuedBytes + pending;
+            }
+        }
+        if (highWaterMark > 0 && pending <= lowWaterMark && !closed && writable.compareAndSet(false, true)) {
+            writabilityConsumer.accept(true);
+            increasePending(0);
+        }
+    }
+
+    /**
+     * 记录输出进度,用于统计输出停滞时长
+     */
+    void markWritten() {
+        lastWriteTime = System.nanoTime();
+    }
+
+    /**
+     * @return 待输出的字节数
+     */
+    public int getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    /**
+     * 获取积压数据中最早入队数据的滞留时长。
+     * <p>统计结果为上限估算值,误差不超过一轮积压数据的出队耗时</p>
+     *
+     * @return 滞留时长(毫秒),无积压数据时返回 0
+     */
+    public long getPendingAge() {
+        if (pendingBytes.get() <= 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldestPendingTime);
+    }
+
+    /**
+     * 获取存在积压数据期间,距离最近一次成功输出的时长。对端停止读取时该值持续增长
+     *
+     * @return 输出停滞时长(毫秒),无积压数据时返回 0
+     */
+    public long getStallTime() {
+        if (pendingBytes.get() <= 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - Math.max(lastWriteTime, backlogTime));
+    }
+
+    /**
+     * 登记输出完成回调,需在锁内调用
+     */
+    private void addListener(long position, CompletionHandler<Long, AioSession> handler) {
+        if (listenerPositions == null) {
+            listenerPositions = new long[16];
+            listenerHandlers = newHandlers(16);
+        } else if (listenerCount == listenerPositions.length) {
+            int length = listenerPositions.length;
+            long[] positions = new long[length << 1];
+            CompletionHandler<Long, AioSession>[] handlers = newHandlers(length << 1);
+            for (int i = 0; i < length; i++) {
+                int index = (listenerHead + i) & (length - 1);
+                positions[i] = listenerPositions[index];
+                handlers[i] = listenerHandlers[index];
+            }
+            listenerPositions = positions;
+            listenerHandlers = handlers;
+            listenerHead = 0;
+        }
+        int index = (listenerHead + listenerCount) & (listenerPositions.length - 1);
+        listenerPositions[index] = position;
+        listenerHandlers[index] = handler;
+        listenerCount++;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static CompletionHandler<Long, AioSession>[] newHandlers(int length) {
+        return new CompletionHandler[length];
+    }
+
+    /**
+     * 数据写入内核缓冲区后,触发已完成输出的回调
+     *
+     * @param size 本次写入的字节数
+     */
+    void notifyWritten(int size) {
+        flushedPosition += size;
+        notifyListeners();
+    }
+
+    /**
+     * 触发输出位置不超过 flushedPosition 的回调。
+     * <p>登记回调的线程先更新 listenerCount 再读取 flushedPosition,输出线程则相反,二者至少有一方能感知到对方,回调不会遗漏</p>
+     */
+    private void notifyListeners() {
+        while (listenerCount > 0) {
+            long position;
+            CompletionHandler<Long, AioSession> handler;
+            synchronized (this) {
+                if (listenerCount == 0 || listenerPositions[listenerHead] > flushedPosition) {
+                    return;
+                }
+                position = listenerPositions[listenerHead];
+                handler = listenerHandlers[listenerHead];
+                listenerHandlers[listenerHead] = null;
+                listenerHead = (listenerHead + 1) & (listenerPositions.length - 1);
+                listenerCount--;
+            }
+            try {
+                handler.completed(position, session);
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 当前是否可写。
+     * <p>待输出数据超过高水位线后返回 false,回落至低水位线后恢复为 true。未设置水位线时始终可写</p>
+     *
+     * @return true:可写,false:建议暂停输出
+     */
+    public boolean isWritable() {
+        return writable.get();
+    }
+
+    /**
+     * items 扩容为原先的两倍
+     */
+    private void growItems() {
+        VirtualBuffer[] newItems = new VirtualBuffer[items.length << 1];
+        boolean[] newBoundaries = new boolean[items.length << 1];
+        for (int i = 0; i < count; i++) {
+            newItems[i] = items[(takeIndex + i) % items.length];
+            newBoundaries[i] = boundaries[(takeIndex + i) % items.length];
+        }
+        items = newItems;
+        boundaries = newBoundaries;
+        takeIndex = 0;
+        putIndex = count;
+    }
+
+    /**
+     * 输出缓冲区中的数据,同时将当前位置记录为报文边界
+     */
     @Override
     public void flush() {
         if (closed) {
             throw new RuntimeException("OutputStream has closed");
         }
-        if (this.count > 0 || (writeInBuf != null && writeInBuf.buffer().position() > 0)) {
+        markBoundary();
+        drain();
+    }
+
+    /**
+     * 触发输出,不记录报文边界
+     */
+    void drain() {
+        if (closed) {
+            throw new RuntimeException("OutputStream has closed");
+        }
+        if (concurrent) {
+            Chunk next = head.next;
+            //队首的零长度数据块不计入待输出字节数,其回调仍需输出线程登记
+            if (pendingBytes.get() > 0 || pendingRegions.get() > 0 || (next != null && next.handler != null && drained(next))) {
+                consumer.accept(this);
+            }
+        } else if (this.count > 0 || (writeInBuf != null && writeInBuf.buffer().position() > 0) || pendingRegions.get() > 0 || urgentCount > 0) {
             consumer.accept(this);
         }
     }
@@ -271,8 +1342,39 @@ public final class WriteBuffer extends OutputStream {
         if (closed) {
             return;
         }
-        flush();
+        //关闭时无需记录报文边界,避免等待因输出积压而阻塞的写线程
+        drain();
         closed = true;
+        failListeners();
+        if (urgentItems != null) {
+            VirtualBuffer urgent;
+            while ((urgent = urgentItems.poll()) != null) {
+                urgent.clean();
+            }
+            urgentCount = 0;
+        }
+        if (concurrent) {
+            Chunk chunk;
+            while ((chunk = head.next) != null) {
+                head = chunk;
+                if (chunk.buffer != null) {
+                    chunk.buffer.clean();
+                }
+                if (chunk.region != null) {
+                    chunk.region.failed(new ClosedChannelException());
+                }
+                if (chunk.handler != null) {
+                    failListener(chunk.handler);
+                }
+            }
+            return;
+        }
+        if (regions != null) {
+            FileRegion region;
+            while ((region = regions.poll()) != null) {
+                region.failed(new ClosedChannelException());
+            }
+        }
         if (writeInBuf != null) {
             writeInBuf.clean();
             writeInBuf = null;
@@ -284,12 +1386,39 @@ public final class WriteBuffer extends OutputStream {
     }
 
 
+    /**
+     * 会话关闭时,通知尚未完成的输出回调
+     */
+    private void failListeners() {
+        while (listenerCount > 0) {
+            CompletionHandler<Long, AioSession> handler = listenerHandlers[listenerHead];
+            listenerHandlers[listenerHead] = null;
+            listenerHead = (listenerHead + 1) & (listenerPositions.length - 1);
+            listenerCount--;
+            failListener(handler);
+        }
+    }
+
+    private void failListener(CompletionHandler<Long, AioSession> handler) {
+        try {
+            handler.failed(new ClosedChannelException(), session);
+        } catch (Throwable e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * 是否存在待输出的数据
      *
      * @return true:有,false:无
      */
     boolean isEmpty() {
+        if (pendingRegions.get() > 0 || urgentCount > 0) {
+            return false;
+        }
+        if (concurrent) {
+            return pendingBytes.get() <= 0;
+        }
         return count == 0 && (writeInBuf == null || writeInBuf.buffer().position() == 0);
     }
 
@@ -299,9 +1428,11 @@ public final class WriteBuffer extends OutputStream {
         }
         VirtualBuffer x = items[takeIndex];
         items[takeIndex] = null;
+        lastBoundary = boundaries[takeIndex];
         if (++takeIndex == items.length) {
             takeIndex = 0;
         }
+        takeCount++;
         if (count-- == items.length) {
             this.notifyAll();
         }
@@ -313,19 +1444,323 @@ public final class WriteBuffer extends OutputStream {
      *
      * @return 待输出的VirtualBuffer
      */
-    synchronized VirtualBuffer poll() {
+    VirtualBuffer poll() {
+        VirtualBuffer buffer = poll0();
+        if (buffer != null) {
+            decreasePending(buffer.buffer().remaining());
+        } else if (listenerCount > 0) {
+            //并发写模式下零长度数据块的回调登记于已输出的位置,不会再由输出完成事件触发
+            notifyListeners();
+        }
+        return buffer;
+    }
+
+    private synchronized VirtualBuffer poll0() {
+        if (concurrent) {
+            return closed ? null : pollChunks();
+        }
+        //队首为待输出的文件
+        if (regions != null && !regions.isEmpty() && regions.peek().barrier == takeCount) {
+            return null;
+        }
         VirtualBuffer item = pollItem();
         if (item != null) {
+            urgentBurst = 0;
             return item;
         }
         if (writeInBuf != null && writeInBuf.buffer().position() > 0) {
             writeInBuf.buffer().flip();
             VirtualBuffer buffer = writeInBuf;
             writeInBuf = null;
+            //flush 之后未再写入数据,则该缓冲块结束于报文边界
+            lastBoundary = writePosition == flushPosition;
+            urgentBurst = 0;
             return buffer;
         } else {
             return null;
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * 获取并移除紧急数据队列头部的数据。
+     * <p>
+     * 仅在普通数据的输出进度处于报文边界(即 flush 位置)时允许插队,
+     * 且普通数据待输出期间紧急数据连续插队 {@link #MAX_URGENT_BURST} 次后需让出一次,避免普通数据饿死
+     * </p>
+     *
+     * @return 待输出的紧急数据
+     */
+    VirtualBuffer pollUrgent() {
+        if (urgentCount == 0) {
+            return null;
+        }
+        VirtualBuffer buffer = pollUrgent0();
+        if (buffer != null) {
+            decreasePending(buffer.buffer().remaining());
+        }
+        return buffer;
+    }
+
+    private synchronized VirtualBuffer pollUrgent0() {
+        if (urgentItems == null || urgentItems.isEmpty() || closed) {
+            return null;
+        }
+        boolean bulkPending;
+        if (concurrent) {
+            Chunk chunk = skipChunks();
+            bulkPending = chunk != null && !drained(chunk);
+        } else {
+            bulkPending = count > 0 || (writeInBuf != null && writeInBuf.buffer().position() > 0);
+        }
+        if (!lastBoundary || (bulkPending && urgentBurst >= MAX_URGENT_BURST)) {
+            return null;
+        }
+        urgentBurst++;
+        urgentCount--;
+        return urgentItems.poll();
+    }
+
+    /**
+     * 输出紧急数据,如心跳、应答、取消等控制报文,调用后立即触发输出。
+     * <p>
+     * 紧急数据独立于普通数据排队,在普通数据的报文边界处插队输出。报文边界即普通数据调用 {@link #flush()} 的位置,
+     * 一轮读处理、{@link AioSession#execute(Runnable)} 任务结束时的自动刷新亦视为报文边界,
+     * 业务需保证 flush 时不存在未输出完整的报文。
+     * </p>
+     * <p>
+     * 紧急数据不计入 {@link #write(byte[], int, int, CompletionHandler)} 回调的输出位置。
+     * </p>
+     *
+     * @param b   待输出数据
+     * @param off b的起始位点
+     * @param len 从b中输出的数据长度
+     * @throws IOException 如果发生 I/O 错误
+     */
+    public void writeUrgent(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        checkOverflow(len);
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("writeBuffer has closed");
+            }
+            VirtualBuffer virtualBuffer = bufferPage.allocate(len);
+            virtualBuffer.buffer().put(b, off, len).flip();
+            if (urgentItems == null) {
+                urgentItems = new ArrayDeque<>();
+            }
+            urgentItems.add(virtualBuffer);
+            urgentCount++;
+        }
+        increasePending(len);
+        consumer.accept(this);
+    }
+
+    /**
+     * @param b 待输出数据
+     * @throws IOException 如果发生 I/O 错误
+     * @see #writeUrgent(byte[], int, int)
+     */
+    public void writeUrgent(byte[] b) throws IOException {
+        writeUrgent(b, 0, b.length);
+    }
+
+    /**
+     * 获取并移除位于输出队列头部的文件,此前的数据需已全部取出
+     *
+     * @return 待输出的文件
+     */
+    synchronized FileRegion pollRegion() {
+        FileRegion region = null;
+        if (concurrent) {
+            Chunk chunk = head.next;
+            if (chunk != null && chunk.region != null) {
+                head = chunk;
+                region = chunk.region;
+                chunk.region = null;
+            }
+        } else if (regions != null && !regions.isEmpty() && regions.peek().barrier == takeCount) {
+            region = regions.poll();
+            //紧急数据于文件输出完毕后方可插队
+            lastBoundary = region.boundary;
+        }
+        if (region != null) {
+            pendingRegions.decrementAndGet();
+        }
+        return region;
+    }
+
+    /**
+     * 并发写模式下,将队列中的数据块合并至内存块中批量输出
+     */
+    private VirtualBuffer pollChunks() {
+        Chunk chunk = skipChunks();
+        if (chunk == null || chunk.region != null || drained(chunk)) {
+            return null;
+        }
+        //业务自行提供的缓冲区直接输出
+        if (chunk.buffer != null) {
+            urgentBurst = 0;
+            lastBoundary = false;
+            head = chunk;
+            VirtualBuffer buffer = chunk.buffer;
+            chunk.buffer = null;
+            writePosition += buffer.buffer().remaining();
+            return buffer;
+        }
+        urgentBurst = 0;
+        VirtualBuffer virtualBuffer = bufferPage.allocate(Math.max(chunkSize, chunk.limit - chunk.offset));
+        ByteBuffer buffer = virtualBuffer.buffer();
+        while (chunk != null && chunk.buffer == null && chunk.region == null && buffer.hasRemaining()) {
+            if (chunk.boundary) {
+                head = chunk;
+                lastBoundary = true;
+                chunk = chunk.next;
+                //存在紧急数据时在报文边界处截断
+                if (urgentCount > 0) {
+                    break;
+                }
+                continue;
+            }
+            //零长度数据块仅用于登记回调,不改变报文边界状态
+            if (chunk.limit == 0) {
+                if (chunk.handler != null) {
+                    addListener(writePosition, chunk.handler);
+                    chunk.handler = null;
+                }
+                chunk.bytes = null;
+                head = chunk;
+                chunk = chunk.next;
+                continue;
+            }
+            lastBoundary = false;
+            int limit = chunk.limit;
+            int size = Math.min(buffer.remaining(), limit - chunk.offset);
+            buffer.put(chunk.bytes, chunk.offset, size);
+            chunk.offset += size;
+            writePosition += size;
+            if (chunk.offset != limit) {
+                continue;
+            }
+            //位于队尾且尚有余量的数据块保留在队列中,供创建线程继续追加
+            if (chunk.owner != null && chunk.next == null && limit < chunk.bytes.length) {
+                lastBoundary = chunk.mark == limit;
+                break;
+            }
+            if (seal(chunk, limit)) {
+                //封存后读取边界位置,与 markBoundary 中记录边界后检查封存状态相配合
+                lastBoundary = chunk.mark == limit;
+                chunk.bytes = null;
+                if (chunk.handler != null) {
+                    addListener(writePosition, chunk.handler);
+                    chunk.handler = null;
+                }
+                head = chunk;
+                chunk = chunk.next;
+                if (lastBoundary && urgentCount > 0) {
+                    break;
+                }
+            }
+        }
+        buffer.flip();
+        return virtualBuffer;
+    }
+
+    /**
+     * 并发写模式下,跳过队首的报文边界标记及已取尽的数据块
+     *
+     * @return 首个待处理的数据块,可能为已取尽但仍可追加的队尾数据块
+     */
+    private Chunk skipChunks() {
+        Chunk chunk = head.next;
+        //不可追加的数据块取尽后即可移除,包括位于队尾的零长度数据块
+        while (chunk != null && (chunk.boundary || (drained(chunk) && (chunk.next != null || chunk.owner == null) && seal(chunk, chunk.offset)))) {
+            //零长度数据块不改变报文边界状态
+            if (chunk.boundary || (chunk.offset > 0 && chunk.mark == chunk.offset)) {
+                lastBoundary = true;
+            }
+            if (chunk.handler != null) {
+                addListener(writePosition, chunk.handler);
+                chunk.handler = null;
+            }
+            chunk.bytes = null;
+            head = chunk;
+            chunk = chunk.next;
+        }
+        //队尾数据块取尽后创建线程才记录的报文边界
+        if (chunk != null && drained(chunk) && chunk.mark == chunk.offset) {
+            lastBoundary = true;
+        }
+        return chunk;
+    }
+
+    /**
+     * 数据块是否已被取尽,取尽的数据块仅在位于队尾时保留
+     */
+    private static boolean drained(Chunk chunk) {
+        return chunk.bytes != null && chunk.offset == chunk.limit;
+    }
+
+    /**
+     * 封存已取尽的数据块,封存失败说明创建线程追加了数据
+     */
+    private static boolean seal(Chunk chunk, int limit) {
+        return chunk.owner == null || LIMIT_UPDATER.compareAndSet(chunk, limit, limit | SEALED);
+    }
+
+    /**
+     * 并发写模式下的数据块
+     */
+    private static final class Chunk {
+        /**
+         * 待输出的字节数据
+         */
+        private byte[] bytes;
+        /**
+         * bytes 中待输出数据的起始位置,仅由输出线程更新
+         */
+        private int offset;
+        /**
+         * bytes 中待输出数据的结束位置,由创建线程追加数据时通过 CAS 更新,输出线程取尽后置为 {@link #SEALED}
+         */
+        volatile int limit;
+        /**
+         * 创建线程记录的报文边界位置
+         */
+        volatile int mark;
+        /**
+         * 创建该数据块的线程,可向其追加数据,为 null 时数据块不可追加
+         */
+        private final Thread owner;
+        /**
+         * 业务直接提供的缓冲区
+         */
+        private VirtualBuffer buffer;
+        /**
+         * 待输出的文件
+         */
+        private FileRegion region;
+        /**
+         * 输出完成回调
+         */
+        private CompletionHandler<Long, AioSession> handler;
+        /**
+         * 是否为报文边界标记
+         */
+        private boolean boundary;
+        private volatile Chunk next;
+
+        Chunk(byte[] bytes, int offset, int limit, VirtualBuffer buffer) {
+            this(bytes, offset, limit, buffer, null);
+        }
+
+        Chunk(byte[] bytes, int offset, int limit, VirtualBuffer buffer, Thread owner) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.limit = limit;
+            this.buffer = buffer;
+            this.owner = owner;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: DecoderStage.java
+ * Date: 2022-10-30
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.decoder;
+
+import org.smartboot.socket.transport.AioSession;
+
+/**
+ * 解码流水线中的一个处理阶段,将上一阶段的输出转换为新的对象,如解压、反序列化等。
+ * <p>
+ * 阶段实现被所有会话共享,会话级状态需通过 {@link org.smartboot.socket.transport.SessionSlot} 存放于会话中。
+ * </p>
+ *
+ * @param <I> 输入对象类型
+ * @param <O> 输出对象类型
+ * @author 三刀
+ * @version V1.0 , 2022/10/30
+ * @see org.smartboot.socket.extension.protocol.DecoderPipeline
+ */
+public interface DecoderStage<I, O> {
+    /**
+     * 解码
+     *
+     * @param input   上一阶段的输出
+     * @param session 当前会话
+     * @return 解码结果, 返回null则表示需要更多输入,如多帧聚合为一条消息
+     */
+    O decode(I input, AioSession session);
+}
@@ -9,6 +9,8 @@
 
 package org.smartboot.socket.extension.decoder;
 
+import org.smartboot.socket.util.BufferUtils;
+
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
@@ -66,16 +68,30 @@ public class DelimiterFrameDecoder implements SmartDecoder {
         ByteBuffer preBuffer = bufferList.get(position);
 
         while (byteBuffer.hasRemaining()) {
-            if (!preBuffer.hasRemaining()) {
-                preBuffer.flip();
-                position++;
-                if (position < bufferList.size()) {
-                    preBuffer = bufferList.get(position);
-                    preBuffer.clear();
-                } else {
-                    preBuffer = ByteBuffer.allocate(preBuffer.capacity());
-                    bufferList.add(preBuffer);
+            //未处于匹配过程中,直接定位至结束标志首字节,之前的数据批量拷贝
+            if (exceptIndex == 0) {
+                int pos = byteBuffer.position();
+                int limit = byteBuffer.limit();
+                int end = BufferUtils.indexOf(byteBuffer, pos, limit, endFLag[0]);
+                if (end < 0) {
+                    end = limit;
                 }
+                while (pos < end) {
+                    if (!preBuffer.hasRemaining()) {
+                        preBuffer = nextBuffer(preBuffer);
+                    }
+                    int size = Math.min(end - pos, preBuffer.remaining());
+                    byteBuffer.limit(pos + size);
+                    preBuffer.put(byteBuffer);
+                    byteBuffer.limit(limit);
+                    pos += size;
+                }
+                if (!byteBuffer.hasRemaining()) {
+                    break;
+                }
+            }
+            if (!preBuffer.hasRemaining()) {
+                preBuffer = nextBuffer(preBuffer);
             }
             byte data = byteBuffer.get();
             preBuffer.put(data);
@@ -95,6 +111,22 @@ public class DelimiterFrameDecoder implements SmartDecoder {
         return finishRead;
     }
 
+    /**
+     * 当前缓冲区已写满,切换至下一个缓冲区
+     */
+    private ByteBuffer nextBuffer(ByteBuffer preBuffer) {
+        preBuffer.flip();
+        position++;
+        if (position < bufferList.size()) {
+            preBuffer = bufferList.get(position);
+            preBuffer.clear();
+        } else {
+            preBuffer = ByteBuffer.allocate(preBuffer.capacity());
+            bufferList.add(preBuffer);
+        }
+        return preBuffer;
+    }
+
     @Override
     public ByteBuffer getBuffer() {
         if (position == 0) {
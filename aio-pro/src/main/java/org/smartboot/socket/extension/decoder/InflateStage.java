@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: InflateStage.java
+ * Date: 2022-11-06
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.decoder;
+
+import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.VirtualBuffer;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.SessionSlot;
+import org.smartboot.socket.util.DeflateCodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 逐帧解压的解码阶段,与 {@link org.smartboot.socket.extension.encoder.DeflateEncoder} 相对应。
+ * <p>
+ * 未压缩的数据帧直接返回切片;压缩的数据帧解压至会话复用的缓冲区,不为每条消息分配内存。
+ * 解码结果仅在 {@link org.smartboot.socket.MessageProcessor#process(AioSession, Object)} 执行期间有效。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/6
+ */
+public class InflateStage implements DecoderStage<ByteBuffer, ByteBuffer> {
+    private final SessionSlot<InflateBuffer> bufferSlot = new SessionSlot<>("inflateBuffer");
+    private final DeflateCodec codec;
+    /**
+     * 解压缓冲区的来源,为 null 时采用堆内存
+     */
+    private final BufferPage bufferPage;
+
+    public InflateStage(DeflateCodec codec) {
+        this(codec, null);
+    }
+
+    public InflateStage(DeflateCodec codec, BufferPage bufferPage) {
+        this.codec = codec;
+        this.bufferPage = bufferPage;
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer input, AioSession session) {
+        int length = codec.decodedLength(input);
+        if (length < 0) {
+            return codec.decode(input, null);
+        }
+        InflateBuffer buffer = session.getSlot(bufferSlot);
+        if (buffer == null) {
+            buffer = new InflateBuffer();
+            session.setSlot(bufferSlot, buffer);
+        }
+        return codec.decode(input, buffer.ensureCapacity(length));
+    }
+
+    /**
+     * 会话复用的解压缓冲区,会话关闭时释放
+     */
+    private class InflateBuffer implements AutoCloseable {
+        private VirtualBuffer buffer;
+
+        ByteBuffer ensureCapacity(int size) {
+            if (buffer == null || buffer.buffer().capacity() < size) {
+                int capacity = Math.max(size, buffer == null ? 0 : buffer.buffer().capacity() << 1);
+                close();
+                buffer = bufferPage == null ? VirtualBuffer.wrap(ByteBuffer.allocate(capacity)) : bufferPage.allocate(capacity);
+            }
+            return buffer.buffer();
+        }
+
+        @Override
+        public void close() {
+            if (buffer != null) {
+                buffer.clean();
+                buffer = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: DeflateEncoder.java
+ * Date: 2022-11-06
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.encoder;
+
+import org.smartboot.socket.Encoder;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.EncodeBuffer;
+import org.smartboot.socket.util.DeflateCodec;
+
+/**
+ * 逐帧压缩的编码器,对业务编码器的输出进行压缩,帧结构:[4字节长度][1字节标志位][内容]。
+ * <p>
+ * 解码端对应的流水线:
+ * <pre>
+ *     DecoderPipeline.of(new LengthFieldFrameProtocol(maxFrameLength, 0, 4, 0, 4))
+ *             .then(new InflateStage(codec))
+ *             .then(messageStage);
+ * </pre>
+ * </p>
+ *
+ * @param <T> 消息对象实体类型
+ * @author 三刀
+ * @version V1.0 , 2022/11/6
+ */
+public class DeflateEncoder<T> implements Encoder<T> {
+    private final Encoder<T> encoder;
+    private final DeflateCodec codec;
+
+    /**
+     * @param encoder 业务消息编码器
+     * @param codec   压缩编解码器
+     */
+    public DeflateEncoder(Encoder<T> encoder, DeflateCodec codec) {
+        this.encoder = encoder;
+        this.codec = codec;
+    }
+
+    @Override
+    public void encode(T msg, EncodeBuffer buffer, AioSession session) {
+        int index = buffer.reserve(Integer.BYTES + 1);
+        encoder.encode(msg, buffer, session);
+        codec.encode(buffer, index + Integer.BYTES);
+        buffer.setInt(index, buffer.position() - index - Integer.BYTES);
+    }
+}
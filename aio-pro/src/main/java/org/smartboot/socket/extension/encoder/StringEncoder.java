@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: StringEncoder.java
+ * Date: 2022-11-04
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.encoder;
+
+import org.smartboot.socket.Encoder;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.EncodeBuffer;
+import org.smartboot.socket.util.StringCodec;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字符串消息编码器,与 {@link org.smartboot.socket.extension.protocol.StringProtocol} 相对应,消息结构:[4字节长度][内容]。
+ * <p>
+ * 字符直接编码至输出缓冲区,长度字段于编码完成后回填,无需构造中间数组。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/4
+ */
+public class StringEncoder implements Encoder<CharSequence> {
+    private final StringCodec codec;
+
+    public StringEncoder() {
+        this(StandardCharsets.UTF_8);
+    }
+
+    public StringEncoder(Charset charset) {
+        this(new StringCodec(charset));
+    }
+
+    public StringEncoder(StringCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public void encode(CharSequence msg, EncodeBuffer buffer, AioSession session) {
+        int index = buffer.reserve(Integer.BYTES);
+        codec.encode(msg, buffer);
+        buffer.setInt(index, buffer.position() - index - Integer.BYTES);
+    }
+}
@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: SlowConsumerPlugin.java
+ * Date: 2022-10-28
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.plugins;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.smartboot.socket.StateMachineEnum;
+import org.smartboot.socket.extension.processor.AbstractMessageProcessor;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.SessionRegistry;
+import org.smartboot.socket.transport.SessionSlot;
+import org.smartboot.socket.transport.WriteBuffer;
+import org.smartboot.socket.util.QuickTimerTask;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 慢消费者检测插件。
+ * <p>
+ * 定时检查各会话的输出积压情况:待输出字节数、最早积压数据的滞留时长以及输出停滞时长,
+ * 任一指标超出限制即判定为慢消费者,触发{@link StateMachineEnum#SLOW_CONSUMER}事件并执行相应的处理策略。
+ * 各项指标均回落至限制的一半以下时恢复正常。
+ * </p>
+ * <p>
+ * 通过 {@link SessionRegistry} 遍历存活会话,检测状态存放于会话的 {@link SessionSlot} 中。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/10/28
+ */
+public class SlowConsumerPlugin<T> extends AbstractPlugin<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowConsumerPlugin.class);
+    private static final SessionSlot<SessionState> STATE_SLOT = new SessionSlot<>("slowConsumer");
+    private final AbstractMessageProcessor<T> processor;
+    private final SessionRegistry registry;
+    private final ScheduledFuture<?> future;
+    /**
+     * 待输出字节数上限,0:不限制
+     */
+    private int maxPendingBytes;
+    /**
+     * 积压数据滞留时长上限(毫秒),0:不限制
+     */
+    private long maxPendingAge;
+    /**
+     * 输出停滞时长上限(毫秒),0:不限制
+     */
+    private long maxStallTime;
+    /**
+     * 慢消费者处理策略
+     */
+    private Action action = Action.CLOSE;
+
+    /**
+     * @param processor 插件所属的消息处理器,用于触发{@link StateMachineEnum#SLOW_CONSUMER}事件
+     * @param registry  服务端的会话注册表,见 {@link org.smartboot.socket.transport.AioQuickServer#getSessionRegistry()}
+     * @param period    检测周期(毫秒)
+     */
+    public SlowConsumerPlugin(AbstractMessageProcessor<T> processor, SessionRegistry registry, int period) {
+        this.processor = processor;
+        this.registry = registry;
+        future = QuickTimerTask.scheduleAtFixedRate(this::check, period, period);
+    }
+
+    public SlowConsumerPlugin<T> setMaxPendingBytes(int maxPendingBytes) {
+        this.maxPendingBytes = maxPendingBytes;
+        return this;
+    }
+
+    public SlowConsumerPlugin<T> setMaxPendingAge(long maxPendingAge) {
+        this.maxPendingAge = maxPendingAge;
+        return this;
+    }
+
+    public SlowConsumerPlugin<T> setMaxStallTime(long maxStallTime) {
+        this.maxStallTime = maxStallTime;
+        return this;
+    }
+
+    public SlowConsumerPlugin<T> setAction(Action action) {
+        this.action = action;
+        return this;
+    }
+
+    @Override
+    public boolean preProcess(AioSession session, T t) {
+        SessionState state = session.getSlot(STATE_SLOT);
+        //降级期间暂停读取,不再接收该会话的新请求
+        if (state != null && state.slow && action == Action.DEGRADE && state.suspended.compareAndSet(false, true)) {
+            session.awaitRead();
+        }
+        return true;
+    }
+
+    @Override
+    public void stateEvent(StateMachineEnum stateMachineEnum, AioSession session, Throwable throwable) {
+        if (stateMachineEnum == StateMachineEnum.NEW_SESSION) {
+            session.setSlot(STATE_SLOT, new SessionState());
+        }
+    }
+
+    private void check() {
+        registry.forEach(session -> {
+            //状态由会话自身的线程写入,尚不可见时留待下一周期检测
+            SessionState state = session.getSlot(STATE_SLOT);
+            if (state == null || session.isInvalid()) {
+                return;
+            }
+            WriteBuffer writeBuffer = session.writeBuffer();
+            if (!state.slow) {
+                if (exceed(writeBuffer, 1)) {
+                    state.slow = true;
+                    LOGGER.warn("session:{} is slow consumer, pendingBytes:{} pendingAge:{}ms stallTime:{}ms", session,
+                            writeBuffer.getPendingBytes(), writeBuffer.getPendingAge(), writeBuffer.getStallTime());
+                    processor.stateEvent(session, StateMachineEnum.SLOW_CONSUMER, null);
+                    if (action == Action.CLOSE) {
+                        session.close(true);
+                    }
+                }
+            } else if (!exceed(writeBuffer, 2)) {
+                state.slow = false;
+            }
+            //恢复读取,转交至 read 线程执行,失败时关闭会话
+            if (!state.slow && state.suspended.compareAndSet(true, false)) {
+                session.resumeRead();
+            }
+        });
+    }
+
+    /**
+     * @param divisor 限制值的缩小倍数
+     * @return 积压指标是否超出限制
+     */
+    private boolean exceed(WriteBuffer writeBuffer, int divisor) {
+        return (maxPendingBytes > 0 && writeBuffer.getPendingBytes() > maxPendingBytes / divisor)
+                || (maxPendingAge > 0 && writeBuffer.getPendingAge() > maxPendingAge / divisor)
+                || (maxStallTime > 0 && writeBuffer.getStallTime() > maxStallTime / divisor);
+    }
+
+    /**
+     * 会话当前是否被判定为慢消费者,{@link Action#DROP}策略下业务应跳过非必要数据的输出
+     *
+     * @param session 会话
+     * @return true:慢消费者
+     */
+    public boolean isSlow(AioSession session) {
+        SessionState state = session.getSlot(STATE_SLOT);
+        return state != null && state.slow;
+    }
+
+    /**
+     * 获取输出积压最严重的若干会话,按待输出字节数降序排列
+     *
+     * @param limit 返回的会话数上限
+     * @return 会话列表
+     */
+    public List<AioSession> topOffenders(int limit) {
+        List<AioSession> list = new ArrayList<>();
+        registry.forEach(session -> {
+            if (!session.isInvalid() && session.writeBuffer().getPendingBytes() > 0) {
+                list.add(session);
+            }
+        });
+        list.sort(Comparator.comparingInt((AioSession session) -> session.writeBuffer().getPendingBytes()).reversed());
+        return list.size() > limit ? new ArrayList<>(list.subList(0, limit)) : list;
+    }
+
+    /**
+     * 输出积压最严重的若干会话的统计报告
+     *
+     * @param limit 会话数上限
+     * @return 统计报告
+     */
+    public String report(int limit) {
+        StringBuilder sb = new StringBuilder("\r\n-----top " + limit + " slow consumers----");
+        for (AioSession session : topOffenders(limit)) {
+            WriteBuffer writeBuffer = session.writeBuffer();
+            sb.append("\r\n").append(session.getSessionID())
+                    .append("\tslow:").append(isSlow(session))
+                    .append("\tpendingBytes:").append(writeBuffer.getPendingBytes())
+                    .append("\tpendingAge:").append(writeBuffer.getPendingAge()).append("(ms)")
+                    .append("\tstallTime:").append(writeBuffer.getStallTime()).append("(ms)");
+        }
+        return sb.toString();
+    }
+
+    public void shutdown() {
+        future.cancel(false);
+    }
+
+    /**
+     * 慢消费者处理策略
+     */
+    public enum Action {
+        /**
+         * 仅标记为慢消费者,由业务通过{@link #isSlow(AioSession)}判断并丢弃非必要数据
+         */
+        DROP,
+        /**
+         * 暂停读取该会话的新请求,待积压回落后恢复,从源头减少输出数据
+         */
+        DEGRADE,
+        /**
+         * 立即关闭会话,释放积压数据
+         */
+        CLOSE
+    }
+
+    private static class SessionState {
+        private volatile boolean slow;
+        /**
+         * 是否已暂停读取
+         */
+        private final AtomicBoolean suspended = new AtomicBoolean();
+    }
+}
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: WorkerMonitorPlugin.java
+ * Date: 2022-10-09
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.plugins;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.smartboot.socket.enhance.WorkerLoad;
+import org.smartboot.socket.transport.AioQuickServer;
+import org.smartboot.socket.util.QuickTimerTask;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * read 线程负载监测插件
+ *
+ * @author 三刀（zhengjunweimail@163.com）
+ * @version V1.0 , 2022/10/9
+ */
+public class WorkerMonitorPlugin<T> extends AbstractPlugin<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerMonitorPlugin.class);
+    /**
+     * 任务执行频率
+     */
+    private final int seconds;
+
+    private final AioQuickServer server;
+
+    private final ScheduledFuture<?> future;
+    /**
+     * 上一周期各线程的累计读取字节数
+     */
+    private long[] lastReadBytes = new long[0];
+
+    public WorkerMonitorPlugin(AioQuickServer server, int seconds) {
+        this.seconds = seconds;
+        this.server = server;
+        long mills = TimeUnit.SECONDS.toMillis(seconds);
+        future = QuickTimerTask.scheduleAtFixedRate(this::monitor, mills, mills);
+    }
+
+    private void monitor() {
+        WorkerLoad[] loads = server.getReadWorkerLoads();
+        if (loads.length == 0) {
+            return;
+        }
+        if (lastReadBytes.length != loads.length) {
+            lastReadBytes = new long[loads.length];
+        }
+        StringBuilder sb = new StringBuilder("\r\n-----" + seconds + "seconds worker load----");
+        for (WorkerLoad load : loads) {
+            long readBytes = load.getReadBytes();
+            sb.append("\r\nworker-").append(load.getIndex())
+                    .append("\tconnections:").append(load.getConnectionCount())
+                    .append("\tbusy:").append(String.format("%.2f%%", load.getBusyRatio() * 100))
+                    .append("\tinflow:").append((readBytes - lastReadBytes[load.getIndex()]) * 1.0 / (1024 * 1024) / seconds).append("(MB/s)");
+            lastReadBytes[load.getIndex()] = readBytes;
+        }
+        LOGGER.info(sb.toString());
+    }
+
+    public void shutdown() {
+        future.cancel(false);
+    }
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: ChannelStreamProcessor.java
+ * Date: 2022-11-03
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.processor;
+
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.SessionSlot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 以 {@link StreamChannel} 的形式交付流式消息,业务在独立线程中以阻塞方式读取消息内容。
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/3
+ */
+public abstract class ChannelStreamProcessor extends StreamMessageProcessor {
+    /**
+     * 会话当前的消息通道,会话关闭时自动关闭
+     */
+    private static final SessionSlot<StreamChannel> CHANNEL_SLOT = new SessionSlot<>("streamChannel");
+
+    @Override
+    protected final void onBegin(AioSession session, int length) {
+        StreamChannel channel = new StreamChannel(session, length);
+        session.setSlot(CHANNEL_SLOT, channel);
+        onStream(session, channel);
+    }
+
+    @Override
+    protected final void onChunk(AioSession session, ByteBuffer chunk) {
+        session.getSlot(CHANNEL_SLOT).offer(chunk);
+    }
+
+    @Override
+    protected final void onEnd(AioSession session) {
+        session.getSlot(CHANNEL_SLOT).finish();
+    }
+
+    /**
+     * 开始接收消息,该方法在 read 线程中执行,不可在此阻塞读取通道,应将通道移交至业务线程
+     *
+     * @param session 当前会话
+     * @param channel 消息通道
+     */
+    protected abstract void onStream(AioSession session, StreamChannel channel);
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: StreamChannel.java
+ * Date: 2022-11-03
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.processor;
+
+import org.smartboot.socket.transport.AioSession;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * 以阻塞通道的形式读取流式消息的内容,由 {@link ChannelStreamProcessor} 创建。
+ * <p>
+ * 每当 read 线程交付一个数据分片,会话随即暂停读取,直至消费线程将该分片读取完毕后再恢复,
+ * 因此消息内容不会在内存中堆积。应在 read 线程以外的线程中读取该通道。
+ * 提前关闭通道将丢弃消息的剩余内容。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/3
+ */
+public final class StreamChannel implements ReadableByteChannel {
+    private final AioSession session;
+    private final int length;
+    /**
+     * 当前待消费的数据分片
+     */
+    private ByteBuffer chunk;
+    /**
+     * 消息内容已全部交付
+     */
+    private boolean finished;
+    private boolean open = true;
+    /**
+     * 会话处于暂停读取状态
+     */
+    private boolean suspended;
+
+    StreamChannel(AioSession session, int length) {
+        this.session = session;
+        this.length = length;
+    }
+
+    /**
+     * @return 消息总长度
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 由 read 线程交付数据分片并暂停读取
+     */
+    synchronized void offer(ByteBuffer chunk) {
+        if (!open) {
+            return;
+        }
+        this.chunk = chunk;
+        suspended = true;
+        session.awaitRead();
+        notifyAll();
+    }
+
+    /**
+     * 消息内容已全部交付
+     */
+    synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int size;
+        boolean resume = false;
+        synchronized (this) {
+            while (open && !finished && (chunk == null || !chunk.hasRemaining())) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            if (chunk == null || !chunk.hasRemaining()) {
+                return -1;
+            }
+            size = Math.min(dst.remaining(), chunk.remaining());
+            int limit = chunk.limit();
+            chunk.limit(chunk.position() + size);
+            dst.put(chunk);
+            chunk.limit(limit);
+            //分片消费完毕,恢复读取
+            if (!chunk.hasRemaining()) {
+                chunk = null;
+                resume = suspended;
+                suspended = false;
+            }
+        }
+        if (resume) {
+            session.resumeRead();
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        boolean resume;
+        synchronized (this) {
+            if (!open) {
+                return;
+            }
+            open = false;
+            chunk = null;
+            resume = suspended;
+            suspended = false;
+            notifyAll();
+        }
+        if (resume && !session.isInvalid()) {
+            //read 线程可能尚未从本次读回调中返回,由 resumeRead 转交至 read 线程执行
+            session.resumeRead();
+        }
+    }
+}
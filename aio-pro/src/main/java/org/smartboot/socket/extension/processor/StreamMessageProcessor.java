@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: StreamMessageProcessor.java
+ * Date: 2022-11-03
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.processor;
+
+import org.smartboot.socket.extension.protocol.StreamFrame;
+import org.smartboot.socket.transport.AioSession;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 流式消息处理器,将 {@link org.smartboot.socket.extension.protocol.StreamFrameProtocol} 解码的事件分发为 begin/chunk/end 回调。
+ * <p>
+ * 数据分片仅在 {@link #onChunk(AioSession, ByteBuffer)} 执行期间有效。
+ * 若需异步消费分片,可在回调中调用 {@link AioSession#awaitRead()} 暂停读取,消费完毕后调用 {@link AioSession#resumeRead()} 恢复,
+ * 期间分片保持有效,以此实现背压。resumeRead 可在业务线程中调用,读取将在 read 线程中恢复。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/3
+ */
+public abstract class StreamMessageProcessor extends AbstractMessageProcessor<StreamFrame> {
+
+    @Override
+    public final void process0(AioSession session, StreamFrame frame) {
+        if (frame.isBegin()) {
+            onBegin(session, frame.getLength());
+        } else {
+            onChunk(session, frame.getChunk());
+        }
+        if (frame.isLast()) {
+            onEnd(session);
+        }
+    }
+
+    /**
+     * 开始接收消息
+     *
+     * @param session 当前会话
+     * @param length  消息总长度
+     */
+    protected abstract void onBegin(AioSession session, int length);
+
+    /**
+     * 接收到消息的数据分片
+     *
+     * @param session 当前会话
+     * @param chunk   数据分片
+     */
+    protected abstract void onChunk(AioSession session, ByteBuffer chunk);
+
+    /**
+     * 消息接收完毕
+     *
+     * @param session 当前会话
+     */
+    protected abstract void onEnd(AioSession session);
+}
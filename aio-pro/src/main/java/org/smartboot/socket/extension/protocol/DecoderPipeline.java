@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: DecoderPipeline.java
+ * Date: 2022-10-30
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.protocol;
+
+import org.smartboot.socket.Protocol;
+import org.smartboot.socket.extension.decoder.DecoderStage;
+import org.smartboot.socket.transport.AioSession;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 可组合的解码流水线。
+ * <p>
+ * 首个阶段为帧解码器,负责从读缓冲区中切分出完整的数据帧;后续阶段依次对数据帧进行转换,如解压、反序列化为业务对象。
+ * 后续阶段返回 null 时表示需要更多数据帧,流水线继续从读缓冲区中切分下一帧。
+ * 流水线本身实现了 {@link Protocol},可直接注册至服务启动类:
+ * <pre>
+ *     Protocol&lt;Order&gt; protocol = DecoderPipeline.of(frameProtocol)
+ *             .then(new InflateStage())
+ *             .then(new OrderStage());
+ * </pre>
+ * </p>
+ *
+ * @param <T> 流水线输出的消息类型
+ * @author 三刀
+ * @version V1.0 , 2022/10/30
+ */
+public final class DecoderPipeline<T> implements Protocol<T> {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final DecoderStage<Object, Object>[] EMPTY_STAGES = new DecoderStage[0];
+    /**
+     * 帧解码器
+     */
+    private final Protocol<?> framer;
+    /**
+     * 后续处理阶段
+     */
+    private final DecoderStage<Object, Object>[] stages;
+
+    private DecoderPipeline(Protocol<?> framer, DecoderStage<Object, Object>[] stages) {
+        this.framer = framer;
+        this.stages = stages;
+    }
+
+    /**
+     * 以帧解码器作为首个阶段构建流水线
+     *
+     * @param framer 帧解码器
+     * @param <F>    数据帧类型
+     * @return 解码流水线
+     */
+    public static <F> DecoderPipeline<F> of(Protocol<F> framer) {
+        return new DecoderPipeline<>(framer, EMPTY_STAGES);
+    }
+
+    /**
+     * 追加处理阶段,返回新的流水线,当前流水线保持不变
+     *
+     * @param stage 处理阶段
+     * @param <O>   处理阶段的输出类型
+     * @return 新的解码流水线
+     */
+    @SuppressWarnings("unchecked")
+    public <O> DecoderPipeline<O> then(DecoderStage<? super T, O> stage) {
+        DecoderStage<Object, Object>[] newStages = Arrays.copyOf(stages, stages.length + 1);
+        newStages[stages.length] = (DecoderStage<Object, Object>) stage;
+        return new DecoderPipeline<>(framer, newStages);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T decode(ByteBuffer readBuffer, AioSession session) {
+        Object value;
+        while ((value = framer.decode(readBuffer, session)) != null) {
+            for (int i = 0; value != null && i < stages.length; i++) {
+                value = stages[i].decode(value, session);
+            }
+            if (value != null) {
+                return (T) value;
+            }
+        }
+        //数据帧不完整
+        return null;
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: DelimiterFrameProtocol.java
+ * Date: 2022-11-01
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.protocol;
+
+import org.smartboot.socket.Protocol;
+import org.smartboot.socket.extension.decoder.DelimiterFrameDecoder;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.SessionSlot;
+import org.smartboot.socket.util.BufferUtils;
+import org.smartboot.socket.util.DecoderException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 基于结束标志的帧解码器,适用于按行分割等文本协议。
+ * <p>
+ * 以每次8字节的方式扫描读缓冲区查找结束标志,数据帧完整位于读缓冲区时直接返回读缓冲区的只读切片,不做任何拷贝,
+ * 该切片仅在 {@link org.smartboot.socket.MessageProcessor#process(AioSession, Object)} 执行期间有效;
+ * 读缓冲区已满仍未找到结束标志时,改由 {@link DelimiterFrameDecoder} 拷贝汇聚。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/1
+ */
+public class DelimiterFrameProtocol implements Protocol<ByteBuffer> {
+    private final SessionSlot<ScanState> stateSlot = new SessionSlot<>("delimiterFrame");
+    /**
+     * 结束标志
+     */
+    private final byte[] delimiter;
+    /**
+     * 数据帧长度上限
+     */
+    private final int maxFrameLength;
+    /**
+     * 解码结果是否剔除结束标志
+     */
+    private final boolean stripDelimiter;
+
+    public DelimiterFrameProtocol(byte[] delimiter, int maxFrameLength) {
+        this(delimiter, maxFrameLength, true);
+    }
+
+    public DelimiterFrameProtocol(byte[] delimiter, int maxFrameLength, boolean stripDelimiter) {
+        if (delimiter == null || delimiter.length == 0) {
+            throw new IllegalArgumentException("delimiter cannot be empty");
+        }
+        this.delimiter = delimiter;
+        this.maxFrameLength = maxFrameLength;
+        this.stripDelimiter = stripDelimiter;
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer readBuffer, AioSession session) {
+        ScanState state = session.getSlot(stateSlot);
+        if (state != null && state.decoder != null) {
+            return decodeLargeFrame(readBuffer, state);
+        }
+        int start = readBuffer.position();
+        int limit = readBuffer.limit();
+        int index = indexOf(readBuffer, state == null ? start : start + state.scanned, limit);
+        if (index >= 0) {
+            int frameEnd = index + delimiter.length;
+            if (frameEnd - start > maxFrameLength) {
+                throw new DecoderException("frame length " + (frameEnd - start) + " exceeds " + maxFrameLength);
+            }
+            if (state != null) {
+                state.scanned = 0;
+            }
+            readBuffer.limit(stripDelimiter ? index : frameEnd);
+            ByteBuffer frame = readBuffer.slice().asReadOnlyBuffer();
+            readBuffer.limit(limit).position(frameEnd);
+            return frame;
+        }
+        int remaining = limit - start;
+        if (remaining > maxFrameLength) {
+            throw new DecoderException("frame length " + remaining + " exceeds " + maxFrameLength);
+        }
+        if (state == null) {
+            state = new ScanState();
+            session.setSlot(stateSlot, state);
+        }
+        //读缓冲区已满,改为拷贝汇聚
+        if (remaining == readBuffer.capacity()) {
+            state.scanned = 0;
+            state.decoder = new DelimiterFrameDecoder(delimiter, readBuffer.capacity());
+            return decodeLargeFrame(readBuffer, state);
+        }
+        //已扫描的数据无需重复扫描,保留末尾可能为结束标志前缀的部分
+        state.scanned = Math.max(0, remaining - delimiter.length + 1);
+        return null;
+    }
+
+    /**
+     * 超出读缓冲区容量的数据帧解码
+     */
+    private ByteBuffer decodeLargeFrame(ByteBuffer readBuffer, ScanState state) {
+        int position = readBuffer.position();
+        boolean finished = state.decoder.decode(readBuffer);
+        state.length += readBuffer.position() - position;
+        if (state.length > maxFrameLength) {
+            throw new DecoderException("frame length " + state.length + " exceeds " + maxFrameLength);
+        }
+        if (!finished) {
+            return null;
+        }
+        ByteBuffer frame = state.decoder.getBuffer();
+        state.decoder = null;
+        state.length = 0;
+        if (stripDelimiter) {
+            frame.limit(frame.limit() - delimiter.length);
+        }
+        return frame.asReadOnlyBuffer();
+    }
+
+    /**
+     * 查找结束标志首次出现的位置
+     */
+    private int indexOf(ByteBuffer buffer, int from, int to) {
+        int last = to - delimiter.length;
+        while (from <= last) {
+            int index = BufferUtils.indexOf(buffer, from, last + 1, delimiter[0]);
+            if (index < 0) {
+                return -1;
+            }
+            int i = 1;
+            while (i < delimiter.length && buffer.get(index + i) == delimiter[i]) {
+                i++;
+            }
+            if (i == delimiter.length) {
+                return index;
+            }
+            from = index + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * 会话的扫描进度
+     */
+    private static class ScanState {
+        /**
+         * 读缓冲区中已扫描且不包含结束标志的字节数
+         */
+        private int scanned;
+        /**
+         * 超长数据帧的解码器
+         */
+        private DelimiterFrameDecoder decoder;
+        /**
+         * 超长数据帧已汇聚的字节数
+         */
+        private int length;
+    }
+}
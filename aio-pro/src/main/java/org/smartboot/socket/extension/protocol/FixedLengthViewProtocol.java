@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: FixedLengthViewProtocol.java
+ * Date: 2022-11-02
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.protocol;
+
+import org.smartboot.socket.Protocol;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.MessageView;
+import org.smartboot.socket.transport.SessionSlot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 定长二进制消息的享元解码协议。
+ * <p>
+ * 每个会话复用同一个 {@link MessageView} 对象,解码时仅将其绑定至读缓冲区中的消息数据,处理过程中不产生任何对象分配。
+ * 视图的有效期受限于 {@link org.smartboot.socket.MessageProcessor#process(AioSession, Object)} 的执行期间。
+ * </p>
+ *
+ * @param <V> 消息视图类型
+ * @author 三刀
+ * @version V1.0 , 2022/11/2
+ */
+public abstract class FixedLengthViewProtocol<V extends MessageView> implements Protocol<V> {
+    private final SessionSlot<V> viewSlot = new SessionSlot<>("messageView");
+    /**
+     * 消息长度
+     */
+    private final int frameLength;
+
+    protected FixedLengthViewProtocol(int frameLength) {
+        if (frameLength <= 0) {
+            throw new IllegalArgumentException("frameLength must be a positive integer: " + frameLength);
+        }
+        this.frameLength = frameLength;
+    }
+
+    /**
+     * 创建会话复用的消息视图
+     *
+     * @return 消息视图
+     */
+    protected abstract V newView();
+
+    @Override
+    public final V decode(ByteBuffer readBuffer, AioSession session) {
+        if (readBuffer.remaining() < frameLength) {
+            return null;
+        }
+        V view = session.getSlot(viewSlot);
+        if (view == null) {
+            view = newView();
+            session.setSlot(viewSlot, view);
+        }
+        int position = readBuffer.position();
+        view.wrap(session, readBuffer, position, frameLength);
+        readBuffer.position(position + frameLength);
+        return view;
+    }
+}
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: LengthFieldFrameProtocol.java
+ * Date: 2022-10-31
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.protocol;
+
+import org.smartboot.socket.Protocol;
+import org.smartboot.socket.buffer.BufferPage;
+import org.smartboot.socket.buffer.VirtualBuffer;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.SessionSlot;
+import org.smartboot.socket.util.DecoderException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 基于长度字段的通用帧解码器。
+ * <p>
+ * 帧结构:[lengthFieldOffset 字节的头部][长度字段][内容],长度字段支持 1/2/3/4/8 字节定长编码及 varint 编码,
+ * 整帧长度 = lengthFieldOffset + 长度字段字节数 + 长度字段值 + lengthAdjustment,解码结果为剔除前 initialBytesToStrip 字节后的只读数据帧。
+ * </p>
+ * <p>
+ * 数据帧完整位于读缓冲区时,直接返回读缓冲区的只读切片,不做任何拷贝,该切片仅在
+ * {@link org.smartboot.socket.MessageProcessor#process(AioSession, Object)} 执行期间有效;
+ * 帧长度超出读缓冲区容量时,数据汇聚至内存池分配的缓冲区,该缓冲区在同一会话下一次解码时回收,亦仅在 process 期间有效。
+ * 业务需异步处理数据帧时应自行拷贝。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/10/31
+ */
+public class LengthFieldFrameProtocol implements Protocol<ByteBuffer> {
+    private final SessionSlot<FrameAssembler> assemblerSlot = new SessionSlot<>("lengthFieldFrame");
+    /**
+     * varint 编码的长度字段
+     */
+    public static final int VARINT = -1;
+    private final ByteOrder byteOrder;
+    private final int maxFrameLength;
+    private final int lengthFieldOffset;
+    private final int lengthFieldLength;
+    private final int lengthAdjustment;
+    private final int initialBytesToStrip;
+    /**
+     * 超长数据帧的汇聚缓冲区来源,为 null 时采用堆内存
+     */
+    private final BufferPage bufferPage;
+
+    /**
+     * @param maxFrameLength    数据帧长度上限
+     * @param lengthFieldOffset 长度字段的偏移量
+     * @param lengthFieldLength 长度字段的字节数:1/2/3/4/8 或 {@link #VARINT}
+     */
+    public LengthFieldFrameProtocol(int maxFrameLength, int lengthFieldOffset, int lengthFieldLength) {
+        this(maxFrameLength, lengthFieldOffset, lengthFieldLength, 0, 0);
+    }
+
+    /**
+     * @param maxFrameLength      数据帧长度上限
+     * @param lengthFieldOffset   长度字段的偏移量
+     * @param lengthFieldLength   长度字段的字节数:1/2/3/4/8 或 {@link #VARINT}
+     * @param lengthAdjustment    长度字段值的修正量
+     * @param initialBytesToStrip 解码结果中剔除的头部字节数
+     */
+    public LengthFieldFrameProtocol(int maxFrameLength, int lengthFieldOffset, int lengthFieldLength, int lengthAdjustment, int initialBytesToStrip) {
+        this(ByteOrder.BIG_ENDIAN, maxFrameLength, lengthFieldOffset, lengthFieldLength, lengthAdjustment, initialBytesToStrip, null);
+    }
+
+    /**
+     * @param byteOrder           长度字段的字节序,varint 编码下无效
+     * @param maxFrameLength      数据帧长度上限
+     * @param lengthFieldOffset   长度字段的偏移量
+     * @param lengthFieldLength   长度字段的字节数:1/2/3/4/8 或 {@link #VARINT}
+     * @param lengthAdjustment    长度字段值的修正量
+     * @param initialBytesToStrip 解码结果中剔除的头部字节数
+     * @param bufferPage          超长数据帧的汇聚缓冲区来源,为 null 时采用堆内存
+     */
+    public LengthFieldFrameProtocol(ByteOrder byteOrder, int maxFrameLength, int lengthFieldOffset, int lengthFieldLength,
+                                    int lengthAdjustment, int initialBytesToStrip, BufferPage bufferPage) {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("maxFrameLength must be a positive integer: " + maxFrameLength);
+        }
+        if (lengthFieldOffset < 0 || initialBytesToStrip < 0) {
+            throw new IllegalArgumentException("lengthFieldOffset and initialBytesToStrip must not be negative");
+        }
+        switch (lengthFieldLength) {
+            case 1:
+            case 2:
+            case 3:
+            case 4:
+            case 8:
+            case VARINT:
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported lengthFieldLength: " + lengthFieldLength);
+        }
+        this.byteOrder = byteOrder;
+        this.maxFrameLength = maxFrameLength;
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.lengthAdjustment = lengthAdjustment;
+        this.initialBytesToStrip = initialBytesToStrip;
+        this.bufferPage = bufferPage;
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer readBuffer, AioSession session) {
+        FrameAssembler assembler = session.getSlot(assemblerSlot);
+        if (assembler != null) {
+            //上一个超长数据帧已处理完毕
+            if (assembler.delivered) {
+                assembler.close();
+                session.setSlot(assemblerSlot, null);
+            } else {
+                return assemble(readBuffer, assembler);
+            }
+        }
+        int start = readBuffer.position();
+        int remaining = readBuffer.remaining();
+        if (remaining <= lengthFieldOffset) {
+            return null;
+        }
+        long length;
+        int fieldBytes;
+        if (lengthFieldLength == VARINT) {
+            length = 0;
+            fieldBytes = 0;
+            int b;
+            do {
+                if (lengthFieldOffset + fieldBytes >= remaining) {
+                    return null;
+                }
+                if (fieldBytes == 5) {
+                    throw new DecoderException("malformed varint length field");
+                }
+                b = readBuffer.get(start + lengthFieldOffset + fieldBytes);
+                length |= (long) (b & 0x7F) << (7 * fieldBytes++);
+            } while ((b & 0x80) != 0);
+        } else {
+            fieldBytes = lengthFieldLength;
+            if (remaining < lengthFieldOffset + fieldBytes) {
+                return null;
+            }
+            length = readLength(readBuffer, start + lengthFieldOffset);
+        }
+        long frameLength = lengthFieldOffset + fieldBytes + length + lengthAdjustment;
+        if (length < 0 || frameLength < lengthFieldOffset + fieldBytes) {
+            throw new DecoderException("negative frame length: " + length);
+        }
+        if (frameLength > maxFrameLength) {
+            throw new DecoderException("frame length " + frameLength + " exceeds " + maxFrameLength);
+        }
+        if (frameLength < initialBytesToStrip) {
+            throw new DecoderException("frame length " + frameLength + " is less than initialBytesToStrip " + initialBytesToStrip);
+        }
+        int frameSize = (int) frameLength;
+        if (remaining >= frameSize) {
+            //数据帧完整,返回读缓冲区的只读切片
+            int limit = readBuffer.limit();
+            readBuffer.position(start + initialBytesToStrip).limit(start + frameSize);
+            ByteBuffer frame = readBuffer.slice().asReadOnlyBuffer();
+            readBuffer.limit(limit).position(start + frameSize);
+            return frame;
+        }
+        //半包,等待读缓冲区接收剩余数据
+        if (frameSize <= readBuffer.capacity()) {
+            return null;
+        }
+        //数据帧超出读缓冲区容量,汇聚至独立的缓冲区
+        VirtualBuffer buffer = bufferPage == null ? VirtualBuffer.wrap(ByteBuffer.allocate(frameSize)) : bufferPage.allocate(frameSize);
+        buffer.buffer().limit(frameSize);
+        assembler = new FrameAssembler(buffer);
+        session.setSlot(assemblerSlot, assembler);
+        return assemble(readBuffer, assembler);
+    }
+
+    /**
+     * 读取定长编码的长度字段
+     */
+    private long readLength(ByteBuffer buffer, int index) {
+        switch (lengthFieldLength) {
+            case 1:
+                return buffer.get(index) & 0xFF;
+            case 2:
+                return (byteOrder == ByteOrder.BIG_ENDIAN ? buffer.getShort(index) : Short.reverseBytes(buffer.getShort(index))) & 0xFFFF;
+            case 3:
+                int b0 = buffer.get(index) & 0xFF;
+                int b1 = buffer.get(index + 1) & 0xFF;
+                int b2 = buffer.get(index + 2) & 0xFF;
+                return byteOrder == ByteOrder.BIG_ENDIAN ? (b0 << 16) | (b1 << 8) | b2 : (b2 << 16) | (b1 << 8) | b0;
+            case 4:
+                return (byteOrder == ByteOrder.BIG_ENDIAN ? buffer.getInt(index) : Integer.reverseBytes(buffer.getInt(index))) & 0xFFFFFFFFL;
+            default:
+                return byteOrder == ByteOrder.BIG_ENDIAN ? buffer.getLong(index) : Long.reverseBytes(buffer.getLong(index));
+        }
+    }
+
+    /**
+     * 将读缓冲区中的数据汇聚至超长数据帧
+     */
+    private ByteBuffer assemble(ByteBuffer readBuffer, FrameAssembler assembler) {
+        ByteBuffer buffer = assembler.buffer.buffer();
+        if (buffer.remaining() >= readBuffer.remaining()) {
+            buffer.put(readBuffer);
+        } else {
+            int limit = readBuffer.limit();
+            readBuffer.limit(readBuffer.position() + buffer.remaining());
+            buffer.put(readBuffer);
+            readBuffer.limit(limit);
+        }
+        if (buffer.hasRemaining()) {
+            return null;
+        }
+        assembler.delivered = true;
+        buffer.flip();
+        buffer.position(initialBytesToStrip);
+        return buffer.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * 超长数据帧的汇聚状态
+     */
+    private static class FrameAssembler implements AutoCloseable {
+        private VirtualBuffer buffer;
+        /**
+         * 数据帧已交付业务处理
+         */
+        private boolean delivered;
+
+        FrameAssembler(VirtualBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void close() {
+            if (buffer != null) {
+                buffer.clean();
+                buffer = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: StreamFrame.java
+ * Date: 2022-11-03
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.protocol;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 流式消息的解码事件,由 {@link StreamFrameProtocol} 产生,同一会话复用同一个对象。
+ * <p>
+ * 一条消息依次产生一个起始事件及若干数据分片事件,最后一个事件的 {@link #isLast()} 为 true。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/3
+ */
+public final class StreamFrame {
+    /**
+     * 消息总长度
+     */
+    int length;
+    /**
+     * 消息剩余未解码的字节数
+     */
+    int remaining;
+    /**
+     * 数据分片,起始事件为 null
+     */
+    ByteBuffer chunk;
+
+    StreamFrame() {
+    }
+
+    /**
+     * @return 消息总长度
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 数据分片为读缓冲区的只读切片,仅在本次处理期间有效。
+     * 若处理期间调用了 {@link org.smartboot.socket.transport.AioSession#awaitRead()},则在 signalRead 之前保持有效。
+     *
+     * @return 数据分片, 起始事件返回 null
+     */
+    public ByteBuffer getChunk() {
+        return chunk;
+    }
+
+    /**
+     * @return 是否为消息的起始事件
+     */
+    public boolean isBegin() {
+        return chunk == null;
+    }
+
+    /**
+     * @return 是否为消息的最后一个事件
+     */
+    public boolean isLast() {
+        return remaining == 0;
+    }
+}
@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: StreamFrameProtocol.java
+ * Date: 2022-11-03
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.extension.protocol;
+
+import org.smartboot.socket.Protocol;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.SessionSlot;
+import org.smartboot.socket.util.DecoderException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 流式解码超大消息,消息结构与 {@link StringProtocol} 一致:[4字节长度][内容]。
+ * <p>
+ * 不为消息分配完整长度的缓冲区,而是将读缓冲区中已接收的内容以只读切片的形式逐段交付业务处理,
+ * 内存占用受限于读缓冲区容量。配合 {@link org.smartboot.socket.extension.processor.StreamMessageProcessor} 使用。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/3
+ */
+public class StreamFrameProtocol implements Protocol<StreamFrame> {
+    private final SessionSlot<StreamFrame> frameSlot = new SessionSlot<>("streamFrame");
+    /**
+     * 消息长度上限
+     */
+    private final int maxLength;
+
+    public StreamFrameProtocol() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public StreamFrameProtocol(int maxLength) {
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("maxLength must not be negative: " + maxLength);
+        }
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public StreamFrame decode(ByteBuffer readBuffer, AioSession session) {
+        StreamFrame frame = session.getSlot(frameSlot);
+        if (frame == null) {
+            frame = new StreamFrame();
+            session.setSlot(frameSlot, frame);
+        }
+        //交付消息的下一个数据分片
+        if (frame.remaining > 0) {
+            int size = Math.min(frame.remaining, readBuffer.remaining());
+            if (size == 0) {
+                return null;
+            }
+            int limit = readBuffer.limit();
+            readBuffer.limit(readBuffer.position() + size);
+            frame.chunk = readBuffer.slice().asReadOnlyBuffer();
+            readBuffer.limit(limit).position(readBuffer.position() + size);
+            frame.remaining -= size;
+            return frame;
+        }
+        if (readBuffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int length = readBuffer.getInt();
+        if (length < 0) {
+            throw new DecoderException("negative message length: " + length);
+        }
+        if (length > maxLength) {
+            throw new DecoderException("message length " + length + " exceeds " + maxLength);
+        }
+        frame.length = length;
+        frame.remaining = length;
+        frame.chunk = null;
+        return frame;
+    }
+}
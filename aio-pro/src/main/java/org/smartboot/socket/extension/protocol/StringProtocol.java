@@ -12,26 +12,34 @@ package org.smartboot.socket.extension.protocol;
 import org.smartboot.socket.Protocol;
 import org.smartboot.socket.extension.decoder.FixedLengthFrameDecoder;
 import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.SessionSlot;
+import org.smartboot.socket.util.StringCodec;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author 三刀
  * @version V1.0 , 2018/11/23
  */
 public class StringProtocol implements Protocol<String> {
+    /**
+     * 超长消息的解码器,存放于会话中
+     */
+    private final SessionSlot<FixedLengthFrameDecoder> decoderSlot = new SessionSlot<>("stringDecoder");
 
-    private final Charset charset;
-
-    private final Map<AioSession, FixedLengthFrameDecoder> decoderMap = new ConcurrentHashMap<>();
-    private long lastClearTime = System.currentTimeMillis();
+    private final StringCodec codec;
 
     public StringProtocol(Charset charset) {
-        this.charset = charset;
+        this(new StringCodec(charset));
+    }
+
+    /**
+     * @param codec 字符串解码器,可借此启用字符串缓存
+     */
+    public StringProtocol(StringCodec codec) {
+        this.codec = codec;
     }
 
     public StringProtocol() {
@@ -40,17 +48,13 @@ public class StringProtocol implements Protocol<String> {
 
     @Override
     public String decode(ByteBuffer readBuffer, AioSession session) {
-        if (System.currentTimeMillis() - lastClearTime > 5000) {
-            lastClearTime = System.currentTimeMillis();
-            decoderMap.keySet().stream().filter(AioSession::isInvalid).forEach(decoderMap::remove);
-        }
-        FixedLengthFrameDecoder decoder = decoderMap.get(session);
+        FixedLengthFrameDecoder decoder = session.getSlot(decoderSlot);
         //消息长度超过缓冲区容量
         if (decoder != null) {
             String content = bigContent(readBuffer, decoder);
             //解码成功,释放解码器
             if (content != null) {
-                decoderMap.remove(session);
+                session.setSlot(decoderSlot, null);
             }
             return content;
         }
@@ -64,7 +68,7 @@ public class StringProtocol implements Protocol<String> {
         //消息长度超过缓冲区容量引发的半包,启用定长消息解码器,本次解码失败
         if (length + Integer.BYTES > readBuffer.capacity()) {
             FixedLengthFrameDecoder fixedLengthFrameDecoder = new FixedLengthFrameDecoder(length);
-            decoderMap.put(session, fixedLengthFrameDecoder);
+            session.setSlot(decoderSlot, fixedLengthFrameDecoder);
             return null;
         }
         //半包，解码失败
@@ -90,8 +94,6 @@ public class StringProtocol implements Protocol<String> {
      * 消息解码
      */
     private String convert(ByteBuffer byteBuffer, int length) {
-        byte[] b = new byte[length];
-        byteBuffer.get(b);
-        return new String(b, charset);
+        return codec.decode(byteBuffer, length);
     }
 }
@@ -10,6 +10,7 @@
 package org.smartboot.socket.util;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * @author 三刀
@@ -28,6 +29,7 @@ public class BufferUtils {
      * Line feed character
      */
     private static final byte LF = 10;
+    private static final long BYTE_MASK = 0x7F7F7F7F7F7F7F7FL;
 
     /**
      * @param buffer
@@ -55,6 +57,35 @@ public class BufferUtils {
         buffer.limit(limit);
     }
 
+    /**
+     * 查找指定字节在缓冲区中首次出现的位置,每次比较8个字节(SWAR),不改变缓冲区的 position
+     *
+     * @param buffer 待查找的缓冲区
+     * @param from   起始位置(包含)
+     * @param to     结束位置(不包含)
+     * @param value  待查找的字节
+     * @return 首次出现的位置, 不存在返回-1
+     */
+    public static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+        long pattern = (value & 0xFFL) * 0x0101010101010101L;
+        boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        int i = from;
+        for (; i + Long.BYTES <= to; i += Long.BYTES) {
+            long x = buffer.getLong(i) ^ pattern;
+            //匹配的字节在 t 中对应的最高位为1,且不存在跨字节进位导致的误判
+            long t = ~(((x & BYTE_MASK) + BYTE_MASK) | x | BYTE_MASK);
+            if (t != 0) {
+                return i + ((bigEndian ? Long.numberOfLeadingZeros(t) : Long.numberOfTrailingZeros(t)) >>> 3);
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * @param buffer
      * @return
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: DeflateCodec.java
+ * Date: 2022-11-06
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.util;
+
+import org.smartboot.socket.transport.EncodeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 逐帧压缩编解码器,基于 {@link Deflater}/{@link Inflater} 实现。
+ * <p>
+ * 压缩后的帧结构:[1字节标志位][内容],标志位 {@link #FLAG_COMPRESSED} 置位时内容为 [varint 原始长度][deflate 数据],否则为原始数据。
+ * 小于压缩阈值或压缩后未能变小的数据保持原样输出。
+ * </p>
+ * <p>
+ * Deflater、Inflater 及压缩输出的临时缓冲区经由对象池复用,不随消息创建,池中容纳不下的实例即时释放本地内存,
+ * 不再使用时调用 {@link #close()} 释放池中的实例;输入输出均直接操作 ByteBuffer,无需中间数组。
+ * 通信双方可约定预置字典,提升短消息的压缩率,字典需在每帧压缩前重新加载,体积不宜过大。
+ * 实例可被多个会话共享使用,由 {@link org.smartboot.socket.extension.encoder.DeflateEncoder}
+ * 与 {@link org.smartboot.socket.extension.decoder.InflateStage} 配对使用。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/6
+ */
+public final class DeflateCodec {
+    /**
+     * 内容已压缩
+     */
+    public static final int FLAG_COMPRESSED = 0x01;
+    /**
+     * 池化的压缩临时缓冲区容量上限,更大的数据帧使用一次性的堆内缓冲区
+     */
+    private static final int MAX_SCRATCH_SIZE = 64 * 1024;
+    private final int level;
+    private final byte[] dictionary;
+    /**
+     * 压缩阈值,小于该长度的数据不压缩
+     */
+    private final int threshold;
+    /**
+     * 解压后的数据长度上限
+     */
+    private final int maxFrameLength;
+    private final BlockingQueue<DeflateContext> deflaters;
+    private final BlockingQueue<Inflater> inflaters;
+    private volatile boolean closed;
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder encodedBytes = new LongAdder();
+    private final LongAdder compressedFrames = new LongAdder();
+    private final LongAdder uncompressedFrames = new LongAdder();
+    private final LongAdder deflateTime = new LongAdder();
+    private final LongAdder inflatedBytes = new LongAdder();
+    private final LongAdder inflateTime = new LongAdder();
+
+    public DeflateCodec() {
+        this(Deflater.BEST_SPEED, null, 256, 16 * 1024 * 1024);
+    }
+
+    /**
+     * @param level          压缩级别,取值同 {@link Deflater#setLevel(int)}
+     * @param dictionary     预置字典,为 null 时不启用
+     * @param threshold      压缩阈值,小于该长度的数据不压缩
+     * @param maxFrameLength 解压后的数据长度上限
+     */
+    public DeflateCodec(int level, byte[] dictionary, int threshold, int maxFrameLength) {
+        if (threshold < 0 || maxFrameLength <= 0) {
+            throw new IllegalArgumentException("threshold must not be negative and maxFrameLength must be positive");
+        }
+        this.level = level;
+        this.dictionary = dictionary == null ? null : dictionary.clone();
+        this.threshold = threshold;
+        this.maxFrameLength = maxFrameLength;
+        int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+        this.deflaters = new ArrayBlockingQueue<>(poolSize);
+        this.inflaters = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * 压缩编码缓冲区中的数据帧,数据帧以 flagIndex 处预留的标志位开始,至当前位置结束。
+     * 完成后标志位被回填,压缩时帧内容被原地替换为压缩数据
+     *
+     * @param buffer    编码缓冲区
+     * @param flagIndex 标志位的位置
+     */
+    public void encode(EncodeBuffer buffer, int flagIndex) {
+        int index = flagIndex + 1;
+        int length = buffer.position() - index;
+        rawBytes.add(length);
+        if (length < threshold) {
+            buffer.setByte(flagIndex, 0);
+            uncompressedFrames.increment();
+            encodedBytes.add(length);
+            return;
+        }
+        long start = System.nanoTime();
+        int headerSize = varIntSize(length);
+        DeflateContext context = deflaters.poll();
+        if (context == null) {
+            context = new DeflateContext(level);
+        }
+        //压缩数据连同长度字段需小于原始数据
+        ByteBuffer output = context.scratch(Math.max(0, length - headerSize));
+        Deflater deflater = context.deflater;
+        boolean compressed;
+        int compressedSize = 0;
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(buffer.slice(index, length));
+            deflater.finish();
+            while (!deflater.finished() && output.hasRemaining()) {
+                deflater.deflate(output);
+            }
+            compressed = deflater.finished();
+            if (compressed) {
+                output.flip();
+                compressedSize = output.remaining();
+                buffer.truncate(index);
+                buffer.writeVarInt(length);
+                buffer.write(output);
+            }
+        } finally {
+            deflater.reset();
+            release(context);
+        }
+        if (compressed) {
+            buffer.setByte(flagIndex, FLAG_COMPRESSED);
+            compressedFrames.increment();
+            encodedBytes.add(headerSize + compressedSize);
+        } else {
+            buffer.setByte(flagIndex, 0);
+            uncompressedFrames.increment();
+            encodedBytes.add(length);
+        }
+        deflateTime.add(System.nanoTime() - start);
+    }
+
+    private void release(DeflateContext context) {
+        if (closed || !deflaters.offer(context)) {
+            context.deflater.end();
+        } else if (closed) {
+            close();
+        }
+    }
+
+    private void release(Inflater inflater) {
+        if (closed || !inflaters.offer(inflater)) {
+            inflater.end();
+        } else if (closed) {
+            close();
+        }
+    }
+
+    /**
+     * 读取数据帧解压后的长度,不改变 frame 的 position
+     *
+     * @param frame 以标志位开始的数据帧
+     * @return 解压后的长度, 未压缩的数据帧返回 -1
+     */
+    public int decodedLength(ByteBuffer frame) {
+        if (!frame.hasRemaining()) {
+            throw new DecoderException("empty frame");
+        }
+        int position = frame.position();
+        if ((frame.get(position) & FLAG_COMPRESSED) == 0) {
+            return -1;
+        }
+        int length = 0;
+        int i = 0;
+        int b;
+        do {
+            if (i == 5 || position + 1 + i >= frame.limit()) {
+                throw new DecoderException("malformed compressed frame header");
+            }
+            b = frame.get(position + 1 + i);
+            length |= (b & 0x7F) << (7 * i++);
+        } while ((b & 0x80) != 0);
+        if (length < 0 || length > maxFrameLength) {
+            throw new DecoderException("decompressed length " + (length & 0xFFFFFFFFL) + " exceeds " + maxFrameLength);
+        }
+        return length;
+    }
+
+    /**
+     * 解码数据帧,frame 将被完全消费
+     *
+     * @param frame  以标志位开始的数据帧
+     * @param output 解压输出缓冲区,容量不小于 {@link #decodedLength(ByteBuffer)},未压缩的数据帧可传入 null
+     * @return 解码后的数据, 未压缩时为 frame 的切片, 否则为 output
+     */
+    public ByteBuffer decode(ByteBuffer frame, ByteBuffer output) {
+        int length = decodedLength(frame);
+        if (length < 0) {
+            frame.get();
+            ByteBuffer content = frame.slice();
+            frame.position(frame.limit());
+            return content;
+        }
+        frame.position(frame.position() + 1 + varIntSize(length));
+        long start = System.nanoTime();
+        output.clear().limit(length);
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            if (dictionary != null) {
+                inflater.setDictionary(dictionary);
+            }
+            inflater.setInput(frame);
+            while (output.hasRemaining()) {
+                if (inflater.inflate(output) == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new DecoderException("truncated compressed frame");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new DecoderException("malformed compressed frame", e);
+        } finally {
+            inflater.reset();
+            release(inflater);
+        }
+        frame.position(frame.limit());
+        output.flip();
+        inflatedBytes.add(length);
+        inflateTime.add(System.nanoTime() - start);
+        return output;
+    }
+
+    private static int varIntSize(int v) {
+        int size = 1;
+        while ((v & ~0x7F) != 0) {
+            v >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * @return 参与编码的原始字节数
+     */
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+
+    /**
+     * @return 编码后的字节数,不含标志位
+     */
+    public long getEncodedBytes() {
+        return encodedBytes.sum();
+    }
+
+    /**
+     * @return 压缩率,编码后字节数与原始字节数之比
+     */
+    public double getCompressionRatio() {
+        long raw = rawBytes.sum();
+        return raw == 0 ? 1 : (double) encodedBytes.sum() / raw;
+    }
+
+    /**
+     * @return 经过压缩的帧数
+     */
+    public long getCompressedFrames() {
+        return compressedFrames.sum();
+    }
+
+    /**
+     * @return 因低于阈值或压缩无效而原样输出的帧数
+     */
+    public long getUncompressedFrames() {
+        return uncompressedFrames.sum();
+    }
+
+    /**
+     * @return 压缩累计耗时(纳秒)
+     */
+    public long getDeflateTime() {
+        return deflateTime.sum();
+    }
+
+    /**
+     * @return 解压输出的累计字节数
+     */
+    public long getInflatedBytes() {
+        return inflatedBytes.sum();
+    }
+
+    /**
+     * @return 解压累计耗时(纳秒)
+     */
+    public long getInflateTime() {
+        return inflateTime.sum();
+    }
+
+    /**
+     * 释放池中 Deflater、Inflater 占用的本地内存,正在使用中的实例于使用完毕后释放。
+     * 关闭后仍可继续编解码,只是不再复用实例
+     */
+    public void close() {
+        closed = true;
+        DeflateContext context;
+        while ((context = deflaters.poll()) != null) {
+            context.deflater.end();
+        }
+        Inflater inflater;
+        while ((inflater = inflaters.poll()) != null) {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DeflateCodec{ratio=" + String.format("%.3f", getCompressionRatio())
+                + ", compressedFrames=" + getCompressedFrames()
+                + ", uncompressedFrames=" + getUncompressedFrames()
+                + ", deflateTime=" + getDeflateTime() / 1000000 + "ms"
+                + ", inflatedBytes=" + getInflatedBytes()
+                + ", inflateTime=" + getInflateTime() / 1000000 + "ms}";
+    }
+
+    /**
+     * 压缩上下文,Deflater 与压缩输出的临时缓冲区一同池化
+     */
+    private static final class DeflateContext {
+        private final Deflater deflater;
+        private ByteBuffer scratch;
+
+        DeflateContext(int level) {
+            this.deflater = new Deflater(level, true);
+        }
+
+        /**
+         * 获取容量不小于 size 的临时缓冲区,limit 置为 size
+         */
+        ByteBuffer scratch(int size) {
+            if (size > MAX_SCRATCH_SIZE) {
+                return ByteBuffer.allocate(size);
+            }
+            if (scratch == null || scratch.capacity() < size) {
+                scratch = ByteBuffer.allocateDirect(Math.min(MAX_SCRATCH_SIZE, Math.max(size, scratch == null ? 4096 : scratch.capacity() << 1)));
+            }
+            scratch.clear().limit(size);
+            return scratch;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: StringCodec.java
+ * Date: 2022-11-04
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.util;
+
+import org.smartboot.socket.transport.EncodeBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字符串编解码器,针对文本协议的高频场景做了优化:
+ * <ul>
+ *     <li>解码时以每次8字节的方式检测纯 ASCII 内容,命中后按 Latin-1 直接构造字符串,不经过通用的 CharsetDecoder</li>
+ *     <li>堆内缓冲区直接基于底层数组构造字符串,直接缓冲区借助线程内复用的临时数组,均无需为每条消息分配中间数组</li>
+ *     <li>可选的字符串缓存,对频繁出现的短字符串复用同一个实例</li>
+ *     <li>编码时将字符直接写入 {@link EncodeBuffer},UTF-8、ISO-8859-1 及 ASCII 内容无需构造中间数组</li>
+ * </ul>
+ * 实例可被多个会话共享使用。
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/4
+ */
+public final class StringCodec {
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    /**
+     * 直接缓冲区解码时线程内复用的临时数组上限
+     */
+    private static final int MAX_SCRATCH_SIZE = 8 * 1024;
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+    private final Charset charset;
+    private final boolean latin1;
+    /**
+     * 可由 {@link EncodeBuffer#writeString(CharSequence, Charset)} 直接编码的字符集
+     */
+    private final boolean directEncoding;
+    /**
+     * ASCII 字符在该字符集下的编码与 ASCII 一致
+     */
+    private final boolean asciiCompatible;
+    /**
+     * 字符串缓存,按内容哈希直接映射,冲突时新值覆盖旧值
+     */
+    private final Entry[] cache;
+    /**
+     * 参与缓存的字符串字节数上限
+     */
+    private final int maxCachedLength;
+
+    public StringCodec(Charset charset) {
+        this(charset, 0, 0);
+    }
+
+    /**
+     * @param charset         字符集
+     * @param cacheSize       字符串缓存的容量,0 表示不启用缓存
+     * @param maxCachedLength 参与缓存的字符串字节数上限
+     */
+    public StringCodec(Charset charset, int cacheSize, int maxCachedLength) {
+        if (cacheSize < 0 || maxCachedLength < 0) {
+            throw new IllegalArgumentException("cacheSize and maxCachedLength must not be negative");
+        }
+        this.charset = charset;
+        this.latin1 = StandardCharsets.ISO_8859_1.equals(charset);
+        this.directEncoding = latin1 || StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset);
+        this.asciiCompatible = isAsciiCompatible(charset);
+        if (cacheSize > 0) {
+            int size = Integer.highestOneBit(cacheSize);
+            this.cache = new Entry[size < cacheSize ? size << 1 : size];
+        } else {
+            this.cache = null;
+        }
+        this.maxCachedLength = maxCachedLength;
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        String value = new String(ascii, charset);
+        if (value.length() != ascii.length) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length; i++) {
+            if (value.charAt(i) != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * 从缓冲区的当前位置解码指定长度的字符串,解码完毕后 position 后移 length 个字节
+     *
+     * @param buffer 数据缓冲区
+     * @param length 字符串的字节数
+     * @return 字符串
+     */
+    public String decode(ByteBuffer buffer, int length) {
+        int position = buffer.position();
+        if (length > buffer.remaining()) {
+            throw new IndexOutOfBoundsException("length: " + length + ", remaining: " + buffer.remaining());
+        }
+        String value = cache != null && length <= maxCachedLength ? decodeCached(buffer, position, length) : decode0(buffer, position, length);
+        buffer.position(position + length);
+        return value;
+    }
+
+    private String decodeCached(ByteBuffer buffer, int offset, int length) {
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer.get(offset + i);
+        }
+        int index = (hash ^ (hash >>> 16)) & (cache.length - 1);
+        Entry entry = cache[index];
+        if (entry != null && entry.hash == hash && entry.matches(buffer, offset, length)) {
+            return entry.value;
+        }
+        String value = decode0(buffer, offset, length);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        cache[index] = new Entry(hash, bytes, value);
+        return value;
+    }
+
+    private String decode0(ByteBuffer buffer, int offset, int length) {
+        if (length == 0) {
+            return "";
+        }
+        //纯 ASCII 内容按 Latin-1 构造,跳过字符集解码
+        Charset target = latin1 || (asciiCompatible && isAscii(buffer, offset, length)) ? StandardCharsets.ISO_8859_1 : charset;
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, target);
+        }
+        byte[] bytes;
+        if (length <= MAX_SCRATCH_SIZE) {
+            bytes = SCRATCH.get();
+            if (bytes.length < length) {
+                bytes = new byte[Math.min(MAX_SCRATCH_SIZE, Math.max(length, bytes.length << 1))];
+                SCRATCH.set(bytes);
+            }
+        } else {
+            bytes = new byte[length];
+        }
+        int position = buffer.position();
+        buffer.position(offset);
+        buffer.get(bytes, 0, length);
+        buffer.position(position);
+        return new String(bytes, 0, length, target);
+    }
+
+    /**
+     * 检测指定区间是否均为 ASCII 字符
+     */
+    private static boolean isAscii(ByteBuffer buffer, int offset, int length) {
+        int i = 0;
+        for (; i + Long.BYTES <= length; i += Long.BYTES) {
+            if ((buffer.getLong(offset + i) & HIGH_BITS) != 0) {
+                return false;
+            }
+        }
+        for (; i < length; i++) {
+            if (buffer.get(offset + i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将字符串编码至输出缓冲区
+     *
+     * @param value  字符串
+     * @param buffer 编码缓冲区
+     */
+    public void encode(CharSequence value, EncodeBuffer buffer) {
+        if (directEncoding) {
+            buffer.writeString(value, charset);
+            return;
+        }
+        int length = value.length();
+        int i = 0;
+        if (asciiCompatible) {
+            for (; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                buffer.writeByte(c);
+            }
+            if (i == length) {
+                return;
+            }
+        }
+        buffer.write(charset.encode(CharBuffer.wrap(value, i, length)));
+    }
+
+    /**
+     * 缓存项,不可变对象,可安全地在线程间共享
+     */
+    private static final class Entry {
+        private final int hash;
+        private final byte[] bytes;
+        private final String value;
+
+        Entry(int hash, byte[] bytes, String value) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = value;
+        }
+
+        boolean matches(ByteBuffer buffer, int offset, int length) {
+            if (bytes.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != buffer.get(offset + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
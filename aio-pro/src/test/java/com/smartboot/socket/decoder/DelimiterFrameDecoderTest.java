@@ -47,6 +47,16 @@ public class DelimiterFrameDecoderTest {
         check("aaabaabb", "aabb");
     }
 
+    @Test
+    public void testDecoder6() {
+        check("0123456789abcdefghijklmnopqrstuvwxyz\r\n0123456789", "\r\n");
+    }
+
+    @Test
+    public void testDecoder7() {
+        check("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaab", "aab");
+    }
+
     private void check(String data, String endFlag) {
         byte[] endBytes = endFlag.getBytes(StandardCharsets.UTF_8);
         DelimiterFrameDecoder decoder = new DelimiterFrameDecoder(endBytes, 512);
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: LengthFieldFrameProtocolTest.java
+ * Date: 2022-11-08
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package com.smartboot.socket.decoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.smartboot.socket.MessageProcessor;
+import org.smartboot.socket.StateMachineEnum;
+import org.smartboot.socket.extension.protocol.LengthFieldFrameProtocol;
+import org.smartboot.socket.transport.AioQuickServer;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.util.DecoderException;
+
+import java.io.DataOutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 超出读缓冲区容量的数据帧经汇聚后交付,超出长度上限的数据帧触发解码异常
+ *
+ * @author 三刀（zhengjunweimail@163.com）
+ * @version V1.0 , 2022/11/8
+ */
+public class LengthFieldFrameProtocolTest {
+    private static final int READ_BUFFER_SIZE = 1024;
+    private static final int MAX_FRAME_LENGTH = 32 * 1024;
+
+    @Test
+    public void testOversizeFrame() throws Exception {
+        BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+        CompletableFuture<Throwable> decodeException = new CompletableFuture<>();
+        AioQuickServer server = new AioQuickServer(8907, new LengthFieldFrameProtocol(MAX_FRAME_LENGTH, 0, 4, 0, 4), new MessageProcessor<ByteBuffer>() {
+            @Override
+            public void process(AioSession session, ByteBuffer frame) {
+                byte[] bytes = new byte[frame.remaining()];
+                frame.get(bytes);
+                received.offer(bytes);
+            }
+
+            @Override
+            public void stateEvent(AioSession session, StateMachineEnum stateMachineEnum, Throwable throwable) {
+                if (stateMachineEnum == StateMachineEnum.DECODE_EXCEPTION) {
+                    decodeException.complete(throwable);
+                }
+            }
+        });
+        server.setBannerEnabled(false);
+        server.setReadBufferSize(READ_BUFFER_SIZE);
+        server.start();
+        //读缓冲区以内、汇聚、汇聚后紧随普通数据帧
+        int[] sizes = {100, 10000, 50, MAX_FRAME_LENGTH - 4, 0};
+        try (Socket socket = new Socket("127.0.0.1", 8907)) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            for (int size : sizes) {
+                out.writeInt(size);
+                out.write(frame(size));
+            }
+            out.flush();
+            for (int size : sizes) {
+                byte[] bytes = received.poll(3, TimeUnit.SECONDS);
+                Assert.assertNotNull(bytes);
+                Assert.assertArrayEquals(frame(size), bytes);
+            }
+
+            //超出长度上限,连接被关闭
+            out.writeInt(MAX_FRAME_LENGTH - 3);
+            out.flush();
+            Assert.assertTrue(decodeException.get(3, TimeUnit.SECONDS) instanceof DecoderException);
+            socket.setSoTimeout(3000);
+            Assert.assertEquals(-1L, socket.getInputStream().read());
+            Assert.assertTrue(received.isEmpty());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static byte[] frame(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31 + size);
+        }
+        return bytes;
+    }
+}
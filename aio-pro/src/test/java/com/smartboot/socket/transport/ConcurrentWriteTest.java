@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: ConcurrentWriteTest.java
+ * Date: 2022-11-08
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package com.smartboot.socket.transport;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.smartboot.socket.transport.AioQuickClient;
+import org.smartboot.socket.transport.AioQuickServer;
+import org.smartboot.socket.transport.WriteBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发输出模式下多线程同时写入,每条记录保持完整且同一线程的记录保持写入顺序
+ *
+ * @author 三刀（zhengjunweimail@163.com）
+ * @version V1.0 , 2022/11/8
+ */
+public class ConcurrentWriteTest {
+    private static final int THREADS = 4;
+    private static final int RECORDS = 20000;
+
+    @Test
+    public void testConcurrentWrite() throws Exception {
+        int[] expected = new int[THREADS];
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(THREADS * RECORDS);
+        AioQuickServer server = new AioQuickServer(8908, (buffer, session) -> buffer.remaining() < 12 ? null : new int[]{buffer.getInt(), buffer.getInt(), buffer.getInt()}, (session, record) -> {
+            int thread = record[0];
+            //线程号、序号及其校验值须来自同一条记录
+            if (thread < 0 || thread >= THREADS || record[1] != expected[thread]++ || record[2] != ~(thread ^ record[1])) {
+                errors.incrementAndGet();
+            }
+            finished.countDown();
+        });
+        server.setBannerEnabled(false);
+        server.start();
+        AioQuickClient client = new AioQuickClient("127.0.0.1", 8908, (buffer, session) -> null, (session, msg) -> {
+        });
+        client.setConcurrentWrite(true);
+        try {
+            WriteBuffer writeBuffer = client.start().writeBuffer();
+            Thread[] producers = new Thread[THREADS];
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                producers[i] = new Thread(() -> {
+                    ByteBuffer record = ByteBuffer.allocate(12);
+                    try {
+                        for (int seq = 0; seq < RECORDS; seq++) {
+                            record.clear();
+                            record.putInt(thread).putInt(seq).putInt(~(thread ^ seq));
+                            writeBuffer.write(record.array());
+                            if (seq % 64 == 0) {
+                                writeBuffer.flush();
+                            }
+                        }
+                        writeBuffer.flush();
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                });
+                producers[i].start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(0L, errors.get());
+        } finally {
+            client.shutdownNow();
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: ReadBudgetTest.java
+ * Date: 2022-11-08
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package com.smartboot.socket.transport;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.smartboot.socket.transport.AioQuickServer;
+
+import java.io.DataOutputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 共用同一 read 线程的两个会话,读预算耗尽的繁忙会话需让出线程,另一会话的消息得以及时处理
+ *
+ * @author 三刀（zhengjunweimail@163.com）
+ * @version V1.0 , 2022/11/8
+ */
+public class ReadBudgetTest {
+    private static final int BUSY_MESSAGES = 4096;
+
+    @Test
+    public void testBusySessionYield() throws Exception {
+        CountDownLatch busyArrived = new CountDownLatch(1);
+        CountDownLatch idleSent = new CountDownLatch(1);
+        CountDownLatch idleProcessed = new CountDownLatch(1);
+        AtomicInteger busyProcessed = new AtomicInteger();
+        AtomicInteger busyBeforeIdle = new AtomicInteger(-1);
+        AioQuickServer server = new AioQuickServer(8903, (buffer, session) -> buffer.remaining() < 4 ? null : buffer.getInt(), (session, msg) -> {
+            if (msg != 1) {
+                busyBeforeIdle.set(busyProcessed.get());
+                idleProcessed.countDown();
+                return;
+            }
+            if (busyProcessed.getAndIncrement() == 0) {
+                //阻塞 read 线程,待两个会话的数据均已到达
+                busyArrived.countDown();
+                try {
+                    idleSent.await(3, TimeUnit.SECONDS);
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        server.setBannerEnabled(false);
+        server.setThreadNum(2);
+        //全部会话分配至同一 read 线程
+        server.setWorkerSelectionStrategy((workers, remoteAddress) -> 0);
+        server.setReadBufferSize(1024);
+        server.setReadBudget(1, 0);
+        server.start();
+        try (Socket idle = new Socket("127.0.0.1", 8903); Socket busy = new Socket("127.0.0.1", 8903)) {
+            DataOutputStream out = new DataOutputStream(busy.getOutputStream());
+            for (int i = 0; i < BUSY_MESSAGES; i++) {
+                out.writeInt(1);
+            }
+            out.flush();
+            Assert.assertTrue(busyArrived.await(3, TimeUnit.SECONDS));
+            OutputStream idleOut = idle.getOutputStream();
+            idleOut.write(new byte[]{0, 0, 0, 2});
+            idleOut.flush();
+            idleSent.countDown();
+            Assert.assertTrue(idleProcessed.await(3, TimeUnit.SECONDS));
+            //繁忙会话每处理一条消息即让出线程,空闲会话无需等待其读缓冲区中的积压消息
+            Assert.assertTrue("busy messages before idle: " + busyBeforeIdle.get(), busyBeforeIdle.get() <= 2);
+        } finally {
+            server.shutdown();
+        }
+    }
+}
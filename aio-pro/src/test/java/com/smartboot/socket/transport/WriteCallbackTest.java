@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: WriteCallbackTest.java
+ * Date: 2022-11-08
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package com.smartboot.socket.transport;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.smartboot.socket.transport.AioQuickClient;
+import org.smartboot.socket.transport.AioQuickServer;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.WriteBuffer;
+
+import java.nio.channels.CompletionHandler;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 输出完成回调,零长度数据同样需触发回调
+ *
+ * @author 三刀（zhengjunweimail@163.com）
+ * @version V1.0 , 2022/11/8
+ */
+public class WriteCallbackTest {
+
+    @Test
+    public void testZeroLength() throws Exception {
+        check(false, 8904);
+    }
+
+    @Test
+    public void testZeroLengthConcurrent() throws Exception {
+        check(true, 8905);
+    }
+
+    private void check(boolean concurrent, int port) throws Exception {
+        AioQuickServer server = new AioQuickServer(port, (buffer, session) -> {
+            buffer.position(buffer.limit());
+            return null;
+        }, (session, msg) -> {
+        });
+        server.setBannerEnabled(false);
+        server.start();
+        AioQuickClient client = new AioQuickClient("127.0.0.1", port, (buffer, session) -> null, (session, msg) -> {
+        });
+        client.setConcurrentWrite(concurrent);
+        try {
+            WriteBuffer writeBuffer = client.start().writeBuffer();
+            //尚无任何待输出数据
+            Assert.assertEquals(0L, (long) write(writeBuffer, new byte[0]));
+            //紧随普通数据之后
+            Assert.assertEquals(10L, (long) write(writeBuffer, new byte[10]));
+            Assert.assertEquals(10L, (long) write(writeBuffer, new byte[0]));
+        } finally {
+            client.shutdownNow();
+            server.shutdown();
+        }
+    }
+
+    private Long write(WriteBuffer writeBuffer, byte[] data) throws Exception {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        writeBuffer.write(data, new CompletionHandler<Long, AioSession>() {
+            @Override
+            public void completed(Long result, AioSession session) {
+                future.complete(result);
+            }
+
+            @Override
+            public void failed(Throwable exc, AioSession session) {
+                future.completeExceptionally(exc);
+            }
+        });
+        writeBuffer.flush();
+        return future.get(3, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: WriteUrgentTest.java
+ * Date: 2022-11-05
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package com.smartboot.socket.transport;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.smartboot.socket.transport.AioQuickClient;
+import org.smartboot.socket.transport.AioQuickServer;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.WriteBuffer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 已输出过普通数据的会话中,紧急数据需在报文边界处正常输出
+ *
+ * @author 三刀（zhengjunweimail@163.com）
+ * @version V1.0 , 2022/11/5
+ */
+public class WriteUrgentTest {
+
+    @Test
+    public void testUrgentAfterBulk() throws Exception {
+        check(false, 8901);
+    }
+
+    @Test
+    public void testUrgentAfterBulkConcurrent() throws Exception {
+        check(true, 8902);
+    }
+
+    private void check(boolean concurrent, int port) throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        AioQuickServer server = new AioQuickServer(port, (buffer, session) -> {
+            int size = buffer.remaining();
+            if (size == 0) {
+                return null;
+            }
+            buffer.position(buffer.limit());
+            return received.addAndGet(size);
+        }, (session, msg) -> {
+        });
+        server.setBannerEnabled(false);
+        server.start();
+        AioQuickClient client = new AioQuickClient("127.0.0.1", port, (buffer, session) -> null, (session, msg) -> {
+        });
+        client.setConcurrentWrite(concurrent);
+        try {
+            AioSession session = client.start();
+            WriteBuffer writeBuffer = session.writeBuffer();
+            writeBuffer.write(new byte[10]);
+            writeBuffer.flush();
+            await(received, 10);
+            writeBuffer.write(new byte[5]);
+            writeBuffer.flush();
+            await(received, 15);
+            writeBuffer.writeUrgent(new byte[3]);
+            await(received, 18);
+            Assert.assertEquals(18, received.get());
+        } finally {
+            client.shutdownNow();
+            server.shutdown();
+        }
+    }
+
+    private void await(AtomicInteger received, int expect) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (received.get() < expect && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertEquals(expect, received.get());
+    }
+}
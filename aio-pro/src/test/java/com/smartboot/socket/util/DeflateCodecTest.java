@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: DeflateCodecTest.java
+ * Date: 2022-11-08
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package com.smartboot.socket.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.smartboot.socket.extension.encoder.DeflateEncoder;
+import org.smartboot.socket.extension.protocol.LengthFieldFrameProtocol;
+import org.smartboot.socket.transport.AioQuickClient;
+import org.smartboot.socket.transport.AioQuickServer;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.util.DecoderException;
+import org.smartboot.socket.util.DeflateCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * 经由 {@link DeflateEncoder} 编码的数据帧逐一校验解码结果
+ *
+ * @author 三刀（zhengjunweimail@163.com）
+ * @version V1.0 , 2022/11/8
+ */
+public class DeflateCodecTest {
+    private static final byte[] DICTIONARY = "{\"symbol\":\"\",\"price\":,\"qty\":,\"side\":\"BUY\"}".getBytes(StandardCharsets.UTF_8);
+    private static final int THRESHOLD = 64;
+    private static final int MAX_FRAME_LENGTH = 1 << 20;
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        byte[] small = "hello".getBytes(StandardCharsets.UTF_8);
+        byte[] random = new byte[4096];
+        new Random(1).nextBytes(random);
+        byte[] json = "{\"symbol\":\"AB1\",\"price\":12,\"qty\":5,\"side\":\"BUY\"}{\"symbol\":\"AB2\",\"price\":13,\"qty\":5,\"side\":\"BUY\"}".getBytes(StandardCharsets.UTF_8);
+
+        DeflateCodec encoder = new DeflateCodec(Deflater.BEST_SPEED, DICTIONARY, THRESHOLD, MAX_FRAME_LENGTH);
+        ByteBuffer[] frames = send(encoder, small, random, json);
+        DeflateCodec decoder = new DeflateCodec(Deflater.BEST_SPEED, DICTIONARY, THRESHOLD, MAX_FRAME_LENGTH);
+
+        //低于压缩阈值,原样输出
+        Assert.assertEquals(-1L, decoder.decodedLength(frames[0]));
+        Assert.assertArrayEquals(small, toBytes(decoder.decode(frames[0].duplicate(), null)));
+
+        //不可压缩的数据,原样输出
+        Assert.assertEquals(1L + random.length, frames[1].remaining());
+        Assert.assertEquals(-1L, decoder.decodedLength(frames[1]));
+        Assert.assertArrayEquals(random, toBytes(decoder.decode(frames[1].duplicate(), null)));
+
+        //借助预置字典压缩
+        Assert.assertEquals(DeflateCodec.FLAG_COMPRESSED, frames[2].get(0));
+        Assert.assertTrue(frames[2].remaining() < json.length);
+        Assert.assertEquals(json.length, decoder.decodedLength(frames[2]));
+        ByteBuffer output = ByteBuffer.allocate(json.length);
+        Assert.assertArrayEquals(json, toBytes(decoder.decode(frames[2].duplicate(), output)));
+
+        //缺少预置字典无法解码
+        DeflateCodec noDictionary = new DeflateCodec(Deflater.BEST_SPEED, null, THRESHOLD, MAX_FRAME_LENGTH);
+        try {
+            noDictionary.decode(frames[2].duplicate(), ByteBuffer.allocate(json.length));
+            Assert.fail("decoded without dictionary");
+        } catch (DecoderException ignored) {
+        } finally {
+            noDictionary.close();
+        }
+
+        //压缩数据不完整
+        ByteBuffer truncated = frames[2].duplicate();
+        truncated.limit(truncated.limit() - 4);
+        try {
+            decoder.decode(truncated, ByteBuffer.allocate(json.length));
+            Assert.fail("decoded truncated frame");
+        } catch (DecoderException ignored) {
+        }
+
+        Assert.assertEquals(1L, encoder.getCompressedFrames());
+        Assert.assertEquals(2L, encoder.getUncompressedFrames());
+        encoder.close();
+        decoder.close();
+    }
+
+    @Test
+    public void testDecodedLength() {
+        DeflateCodec codec = new DeflateCodec(Deflater.BEST_SPEED, null, THRESHOLD, MAX_FRAME_LENGTH);
+        //空数据帧
+        assertMalformed(codec, new byte[0]);
+        //长度字段不完整
+        assertMalformed(codec, new byte[]{DeflateCodec.FLAG_COMPRESSED, (byte) 0x80});
+        //长度字段超过5字节
+        assertMalformed(codec, new byte[]{DeflateCodec.FLAG_COMPRESSED, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01});
+        //解压后长度超出上限
+        assertMalformed(codec, new byte[]{DeflateCodec.FLAG_COMPRESSED, (byte) 0x81, (byte) 0x80, (byte) 0x80, 0x01});
+        //上限以内
+        ByteBuffer frame = ByteBuffer.wrap(new byte[]{DeflateCodec.FLAG_COMPRESSED, (byte) 0x80, (byte) 0x80, 0x40});
+        Assert.assertEquals(MAX_FRAME_LENGTH, codec.decodedLength(frame));
+        Assert.assertEquals(0L, frame.position());
+        codec.close();
+    }
+
+    private void assertMalformed(DeflateCodec codec, byte[] frame) {
+        try {
+            codec.decodedLength(ByteBuffer.wrap(frame));
+            Assert.fail("accepted " + Arrays.toString(frame));
+        } catch (DecoderException ignored) {
+        }
+    }
+
+    /**
+     * 发送消息并收集服务端接收到的原始数据帧
+     */
+    private ByteBuffer[] send(DeflateCodec codec, byte[]... messages) throws Exception {
+        BlockingQueue<ByteBuffer> received = new LinkedBlockingQueue<>();
+        AioQuickServer server = new AioQuickServer(8906, new LengthFieldFrameProtocol(MAX_FRAME_LENGTH, 0, 4, 0, 4), (session, frame) -> received.offer(ByteBuffer.wrap(toBytes(frame))));
+        server.setBannerEnabled(false);
+        server.start();
+        AioQuickClient client = new AioQuickClient("127.0.0.1", 8906, (buffer, session) -> null, (session, msg) -> {
+        });
+        client.setEncoder(new DeflateEncoder<byte[]>((msg, buffer, session) -> buffer.write(msg), codec));
+        try {
+            AioSession session = client.start();
+            for (byte[] message : messages) {
+                session.writeObject(message);
+            }
+            session.writeBuffer().flush();
+            ByteBuffer[] frames = new ByteBuffer[messages.length];
+            for (int i = 0; i < frames.length; i++) {
+                frames[i] = received.poll(3, TimeUnit.SECONDS);
+                Assert.assertNotNull(frames[i]);
+            }
+            return frames;
+        } finally {
+            client.shutdownNow();
+            server.shutdown();
+        }
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,98 @@
+package org.smartboot.socket.benchmark;
+
+import org.smartboot.socket.MessageProcessor;
+import org.smartboot.socket.Protocol;
+import org.smartboot.socket.transport.AioQuickClient;
+import org.smartboot.socket.transport.AioQuickServer;
+import org.smartboot.socket.transport.AioSession;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ping-pong 往返延迟测试，对比默认模式与忙轮询模式下的 p50/p99。
+ * <p>
+ * -Dcount=请求次数 -DbusyPoll=忙轮询时长(微秒)
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/10/8
+ */
+public class LatencyBenchmark {
+    private static final Protocol<Long> LONG_PROTOCOL = (readBuffer, session) -> readBuffer.remaining() < Long.BYTES ? null : readBuffer.getLong();
+
+    public static void main(String[] args) throws Exception {
+        int count = Integer.parseInt(System.getProperty("count", "100000"));
+        int busyPoll = Integer.parseInt(System.getProperty("busyPoll", "50"));
+        int port = Integer.parseInt(System.getProperty("port", "8090"));
+
+        report("default", run(port, 0, count));
+        report("busyPoll(" + busyPoll + "us)", run(port + 1, busyPoll, count));
+        System.exit(0);
+    }
+
+    private static long[] run(int port, int busyPoll, int count) throws Exception {
+        AioQuickServer server = new AioQuickServer(port, LONG_PROTOCOL, (session, msg) -> {
+            try {
+                session.writeBuffer().writeLong(msg);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        server.setBannerEnabled(false).setBusyPoll(busyPoll).setThreadNum(2);
+        server.start();
+
+        //预热阶段的样本不计入统计
+        int warmup = count / 10;
+        long[] samples = new long[count];
+        CountDownLatch latch = new CountDownLatch(1);
+        MessageProcessor<Long> clientProcessor = new MessageProcessor<Long>() {
+            private int index = -warmup;
+
+            @Override
+            public void process(AioSession session, Long sendTime) {
+                long rtt = System.nanoTime() - sendTime;
+                if (index >= 0) {
+                    samples[index] = rtt;
+                }
+                if (++index == count) {
+                    latch.countDown();
+                    return;
+                }
+                ping(session);
+            }
+        };
+        AioQuickClient client = new AioQuickClient("127.0.0.1", port, LONG_PROTOCOL, clientProcessor);
+        AioSession session = client.start();
+        ping(session);
+        if (!latch.await(5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("benchmark timeout");
+        }
+        client.shutdownNow();
+        server.shutdown();
+        return samples;
+    }
+
+    private static void ping(AioSession session) {
+        try {
+            session.writeBuffer().writeLong(System.nanoTime());
+            session.writeBuffer().flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void report(String mode, long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-20s samples=%d p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus%n", mode, sorted.length,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), sorted[sorted.length - 1] / 1000.0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+}
@@ -10,8 +10,10 @@ import org.smartboot.socket.extension.protocol.StringProtocol;
 import org.smartboot.socket.transport.AioQuickServer;
 import org.smartboot.socket.transport.AioSession;
 import org.smartboot.socket.transport.WriteBuffer;
+import org.smartboot.socket.util.StringCodec;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * ulimit -n 1000000
@@ -32,7 +34,7 @@ public class Server {
                 WriteBuffer outputStream = session.writeBuffer();
 
                 try {
-                    byte[] bytes = msg.getBytes();
+                    byte[] bytes = msg.getBytes(StandardCharsets.UTF_8);
                     outputStream.writeInt(bytes.length);
                     outputStream.write(bytes);
                 } catch (IOException e) {
@@ -49,7 +51,8 @@ public class Server {
         };
 
         BufferPagePool bufferPagePool = new BufferPagePool(1024 * 1024, Runtime.getRuntime().availableProcessors() + 1, true);
-        AioQuickServer server = new AioQuickServer(port, new StringProtocol(), processor);
+        StringCodec codec = new StringCodec(StandardCharsets.UTF_8, 1024, 64);
+        AioQuickServer server = new AioQuickServer(port, new StringProtocol(codec), processor);
         server.setReadBufferSize(1024)
                 .setThreadNum(Runtime.getRuntime().availableProcessors() + 1)
                 .setBufferFactory(() -> bufferPagePool)
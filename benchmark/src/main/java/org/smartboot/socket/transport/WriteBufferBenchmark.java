@@ -0,0 +1,104 @@
+package org.smartboot.socket.transport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.smartboot.socket.buffer.BufferPagePool;
+import org.smartboot.socket.buffer.VirtualBuffer;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个业务线程向同一 WriteBuffer 输出数据时，默认模式与并发写模式的吞吐对比。
+ * <p>
+ * 输出线程以同步消费的方式模拟，与 TcpAioSession 一样通过信号量保证同一时刻仅有一个线程执行 poll。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/10/12
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriteBufferBenchmark {
+    @Param({"false", "true"})
+    private boolean concurrent;
+
+    @Param({"8", "256"})
+    private int size;
+
+    private BufferPagePool bufferPagePool;
+    private WriteBuffer writeBuffer;
+    private byte[] payload;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(WriteBufferBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        bufferPagePool = new BufferPagePool(16 * 1024 * 1024, 1, false);
+        IoServerConfig config = new IoServerConfig();
+        config.setWriteBufferSize(4096);
+        config.setWriteBufferCapacity(64);
+        config.setConcurrentWrite(concurrent);
+        Semaphore semaphore = new Semaphore(1);
+        writeBuffer = new WriteBuffer(bufferPagePool.allocateBufferPage(), buffer -> {
+            if (!semaphore.tryAcquire()) {
+                return;
+            }
+            try {
+                VirtualBuffer virtualBuffer;
+                while ((virtualBuffer = buffer.poll()) != null) {
+                    virtualBuffer.clean();
+                }
+            } finally {
+                semaphore.release();
+            }
+        }, config, null, null, null);
+        payload = new byte[size];
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        writeBuffer.close();
+        bufferPagePool.release();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void producers1() throws IOException {
+        writeBuffer.write(payload);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void producers4() throws IOException {
+        writeBuffer.write(payload);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void producers16() throws IOException {
+        writeBuffer.write(payload);
+    }
+}
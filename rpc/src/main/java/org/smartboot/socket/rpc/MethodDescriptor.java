@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: MethodDescriptor.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc;
+
+import org.smartboot.socket.rpc.serializer.Serializer;
+import org.smartboot.socket.rpc.serializer.Serializers;
+import org.smartboot.socket.transport.EncodeBuffer;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+
+/**
+ * 接口方法的描述信息,在服务注册时一次性生成:方法编号及入参、返回值的序列化器
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+final class MethodDescriptor {
+    private final ServiceDescriptor service;
+    private final Method method;
+    /**
+     * 方法编号,即方法在接口方法表中的下标
+     */
+    private final int methodId;
+    private final Serializer<Object>[] parameterSerializers;
+    /**
+     * 返回值的序列化器,void 方法为 null
+     */
+    private final Serializer<Object> returnSerializer;
+
+    @SuppressWarnings("unchecked")
+    MethodDescriptor(ServiceDescriptor service, Method method, int methodId) {
+        this.service = service;
+        this.method = method;
+        this.methodId = methodId;
+        Type[] parameterTypes = method.getGenericParameterTypes();
+        this.parameterSerializers = (Serializer<Object>[]) new Serializer<?>[parameterTypes.length];
+        try {
+            for (int i = 0; i < parameterTypes.length; i++) {
+                parameterSerializers[i] = Serializers.of(parameterTypes[i]);
+            }
+            this.returnSerializer = method.getReturnType() == void.class ? null : Serializers.of(method.getGenericReturnType());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unsupported method: " + method, e);
+        }
+    }
+
+    ServiceDescriptor getService() {
+        return service;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    int getMethodId() {
+        return methodId;
+    }
+
+    int getParameterCount() {
+        return parameterSerializers.length;
+    }
+
+    void writeParameters(Object[] args, EncodeBuffer buffer) {
+        for (int i = 0; i < parameterSerializers.length; i++) {
+            parameterSerializers[i].write(args[i], buffer);
+        }
+    }
+
+    Object[] readParameters(ByteBuffer buffer) {
+        Object[] args = new Object[parameterSerializers.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = parameterSerializers[i].read(buffer);
+        }
+        return args;
+    }
+
+    void writeReturnValue(Object value, EncodeBuffer buffer) {
+        if (returnSerializer != null) {
+            returnSerializer.write(value, buffer);
+        }
+    }
+
+    Object readReturnValue(ByteBuffer buffer) {
+        return returnSerializer == null ? null : returnSerializer.read(buffer);
+    }
+}
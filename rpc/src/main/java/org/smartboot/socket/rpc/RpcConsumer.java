@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: RpcConsumer.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.smartboot.socket.StateMachineEnum;
+import org.smartboot.socket.extension.processor.AbstractMessageProcessor;
+import org.smartboot.socket.transport.AioSession;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RPC 服务消费方,通过 {@link #getObject(Class)} 获取远程服务的本地代理。
+ * <p>
+ * 代理对象按预先生成的方法表将调用编码为"服务编号+方法编号+入参",入参直接序列化至输出缓冲区;
+ * 响应按请求编号匹配,返回值在读线程中完成反序列化。
+ * </p>
+ * 解码器需采用 {@code new LengthFieldFrameProtocol(maxFrameLength, 0, 4, 0, 4)}。
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+public class RpcConsumer extends AbstractMessageProcessor<ByteBuffer> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RpcConsumer.class);
+    private final Map<Integer, PendingCall> pendingCalls = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Object> objectMap = new ConcurrentHashMap<>();
+    private final AtomicInteger requestIdGenerator = new AtomicInteger();
+    /**
+     * 调用超时时间,单位:毫秒
+     */
+    private final long timeout;
+    private volatile AioSession session;
+
+    public RpcConsumer() {
+        this(3000);
+    }
+
+    /**
+     * @param timeout 调用超时时间,单位:毫秒
+     */
+    public RpcConsumer(long timeout) {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void process0(AioSession session, ByteBuffer msg) {
+        PendingCall call = pendingCalls.remove(msg.getInt());
+        if (call == null) {
+            LOGGER.warn("response is timeout or unknown");
+            return;
+        }
+        try {
+            if (msg.get() == RpcMessage.STATUS_OK) {
+                call.complete(call.method.readReturnValue(msg));
+            } else {
+                call.completeExceptionally(new RuntimeException(RpcResponse.EXCEPTION_SERIALIZER.read(msg)));
+            }
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 获取远程服务的本地代理
+     *
+     * @param remoteInterface 服务接口
+     * @return 代理对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getObject(final Class<T> remoteInterface) {
+        return (T) objectMap.computeIfAbsent(remoteInterface, clazz -> {
+            ServiceDescriptor service = ServiceDescriptor.of(clazz);
+            InvocationHandler handler = (proxy, method, args) -> {
+                MethodDescriptor descriptor = service.getMethod(method);
+                if (descriptor == null) {
+                    //Object 类中声明的方法在本地处理
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            return clazz.getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                    }
+                }
+                return invoke(descriptor, args == null ? new Object[0] : args);
+            };
+            return Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[]{clazz}, handler);
+        });
+    }
+
+    private Object invoke(MethodDescriptor method, Object[] args) throws Throwable {
+        AioSession session = this.session;
+        if (session == null || session.isInvalid()) {
+            throw new IOException("session is not available");
+        }
+        int requestId = requestIdGenerator.incrementAndGet();
+        PendingCall call = new PendingCall(method);
+        pendingCalls.put(requestId, call);
+        try {
+            session.writeBuffer().writeObject(new RpcRequest(requestId, method, args), RpcEncoder.INSTANCE);
+            session.writeBuffer().flush();
+            return call.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            throw new SocketTimeoutException("Message is timeout!");
+        } finally {
+            pendingCalls.remove(requestId);
+        }
+    }
+
+    @Override
+    public void stateEvent0(AioSession session, StateMachineEnum stateMachineEnum, Throwable throwable) {
+        switch (stateMachineEnum) {
+            case NEW_SESSION:
+                this.session = session;
+                break;
+            case SESSION_CLOSED:
+                if (this.session == session) {
+                    this.session = null;
+                }
+                //会话断开后不再有响应,立即结束等待中的调用
+                pendingCalls.values().forEach(call -> call.completeExceptionally(new IOException("session closed")));
+                break;
+            default:
+                if (throwable != null) {
+                    LOGGER.error(stateMachineEnum.name(), throwable);
+                }
+        }
+    }
+
+    /**
+     * 等待响应的调用
+     */
+    private static final class PendingCall extends CompletableFuture<Object> {
+        private final MethodDescriptor method;
+
+        PendingCall(MethodDescriptor method) {
+            this.method = method;
+        }
+    }
+}
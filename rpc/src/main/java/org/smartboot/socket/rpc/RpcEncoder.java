@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: RpcEncoder.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc;
+
+import org.smartboot.socket.Encoder;
+import org.smartboot.socket.transport.AioSession;
+import org.smartboot.socket.transport.EncodeBuffer;
+
+/**
+ * RPC 报文编码器,预留长度字段,待报文内容直接序列化至缓冲区后回填
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+final class RpcEncoder implements Encoder<RpcMessage> {
+    static final RpcEncoder INSTANCE = new RpcEncoder();
+
+    private RpcEncoder() {
+    }
+
+    @Override
+    public void encode(RpcMessage msg, EncodeBuffer buffer, AioSession session) {
+        int index = buffer.reserve(Integer.BYTES);
+        msg.encode(buffer);
+        buffer.setInt(index, buffer.position() - index - Integer.BYTES);
+    }
+}
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: RpcMessage.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc;
+
+import org.smartboot.socket.transport.EncodeBuffer;
+
+/**
+ * RPC 报文,由 {@link RpcEncoder} 补全长度字段后输出
+ * <p>
+ * 请求报文:[4字节长度][4字节请求编号][4字节服务编号][varint 方法编号][入参]<br/>
+ * 响应报文:[4字节长度][4字节请求编号][1字节状态][返回值或异常信息]
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+interface RpcMessage {
+    /**
+     * 响应状态:调用成功
+     */
+    byte STATUS_OK = 0;
+    /**
+     * 响应状态:调用异常
+     */
+    byte STATUS_EXCEPTION = 1;
+
+    /**
+     * 编码长度字段之后的报文内容
+     */
+    void encode(EncodeBuffer buffer);
+}
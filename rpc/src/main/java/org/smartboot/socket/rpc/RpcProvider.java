@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: RpcProvider.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.smartboot.socket.StateMachineEnum;
+import org.smartboot.socket.extension.processor.AbstractMessageProcessor;
+import org.smartboot.socket.rpc.serializer.Serializers;
+import org.smartboot.socket.transport.AioSession;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RPC 服务提供方。
+ * <p>
+ * 服务发布时即为接口的每个方法生成绑定了实现对象的 MethodHandle,按服务编号、方法编号直接定位,调用过程无反射查找。
+ * 请求携带的接口签名摘要与本地不一致时,说明双方接口定义不同,方法编号不可信,直接返回失败。
+ * 入参在读线程中完成反序列化,业务方法交由线程池执行,返回值直接序列化至输出缓冲区。
+ * </p>
+ * 解码器需采用 {@code new LengthFieldFrameProtocol(maxFrameLength, 0, 4, 0, 4)}。
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+public class RpcProvider extends AbstractMessageProcessor<ByteBuffer> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RpcProvider.class);
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private final Map<Integer, Service> services = new ConcurrentHashMap<>();
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+    /**
+     * 业务方法的执行线程池,为 null 时在读线程中直接执行
+     */
+    private final Executor executor;
+    /**
+     * 由当前对象创建的线程池,{@link #shutdown()} 时一并关闭
+     */
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * 业务方法由内部创建的线程池执行,线程为守护线程,不再使用时可通过 {@link #shutdown()} 释放
+     */
+    public RpcProvider() {
+        this.ownedExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "smart-socket:rpc-provider-" + THREAD_INDEX.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = ownedExecutor;
+    }
+
+    /**
+     * @param executor 业务方法的执行线程池,由调用方负责关闭。为 null 时在读线程中直接执行,仅适用于无阻塞的轻量方法
+     */
+    public RpcProvider(Executor executor) {
+        this.executor = executor;
+        this.ownedExecutor = null;
+    }
+
+    /**
+     * 关闭由无参构造方法创建的线程池,已提交的调用仍会执行完毕。外部传入的线程池不受影响
+     */
+    public void shutdown() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 发布服务
+     *
+     * @param serviceInterface 服务接口
+     * @param impl             服务实现
+     */
+    public final <T> void publishService(Class<T> serviceInterface, T impl) {
+        ServiceDescriptor service = ServiceDescriptor.of(serviceInterface);
+        MethodDescriptor[] methods = service.getMethods();
+        Invoker[] invokers = new Invoker[methods.length];
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (int i = 0; i < methods.length; i++) {
+            Method method = methods[i].getMethod();
+            try {
+                MethodHandle handle = lookup.unreflect(method).bindTo(impl)
+                        .asSpreader(Object[].class, methods[i].getParameterCount())
+                        .asType(INVOKER_TYPE);
+                invokers[i] = new Invoker(methods[i], handle);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("inaccessible method: " + method, e);
+            }
+        }
+        Service exists = services.putIfAbsent(service.getServiceId(), new Service(service, invokers));
+        if (exists != null) {
+            throw new IllegalStateException("service id of " + serviceInterface.getName() + " conflicts with " + exists.descriptor.getServiceInterface().getName());
+        }
+    }
+
+    @Override
+    public void process0(AioSession session, ByteBuffer msg) {
+        int requestId = msg.getInt();
+        Invoker invoker;
+        Object[] args;
+        try {
+            int serviceId = msg.getInt();
+            int signatureHash = msg.getInt();
+            int methodId = Serializers.readVarInt(msg);
+            Service service = services.get(serviceId);
+            if (service != null && service.descriptor.getSignatureHash() != signatureHash) {
+                response(session, RpcResponse.failure(requestId, "service signature mismatch: " + service.descriptor.getServiceInterface().getName()));
+                return;
+            }
+            invoker = service == null ? null : service.getInvoker(methodId);
+            if (invoker == null) {
+                response(session, RpcResponse.failure(requestId, "can not find service: " + serviceId + ", method: " + methodId));
+                return;
+            }
+            args = invoker.method.readParameters(msg);
+        } catch (RuntimeException e) {
+            LOGGER.error("decode request fail", e);
+            response(session, RpcResponse.failure(requestId, e.toString()));
+            return;
+        }
+        if (executor == null) {
+            invoke(session, requestId, invoker, args);
+        } else {
+            executor.execute(() -> invoke(session, requestId, invoker, args));
+        }
+    }
+
+    private void invoke(AioSession session, int requestId, Invoker invoker, Object[] args) {
+        RpcResponse response;
+        try {
+            response = RpcResponse.success(requestId, invoker.method, invoker.handle.invokeExact(args));
+        } catch (Throwable e) {
+            LOGGER.error(e.getMessage(), e);
+            response = RpcResponse.failure(requestId, e.getMessage());
+        }
+        response(session, response);
+    }
+
+    private void response(AioSession session, RpcResponse response) {
+        try {
+            try {
+                session.writeBuffer().writeObject(response, RpcEncoder.INSTANCE);
+            } catch (RuntimeException e) {
+                LOGGER.error("encode response fail", e);
+                session.writeBuffer().writeObject(RpcResponse.failure(response.getRequestId(), e.toString()), RpcEncoder.INSTANCE);
+            }
+            session.writeBuffer().flush();
+        } catch (IOException e) {
+            LOGGER.warn("response fail", e);
+        }
+    }
+
+    @Override
+    public void stateEvent0(AioSession session, StateMachineEnum stateMachineEnum, Throwable throwable) {
+        if (throwable != null) {
+            LOGGER.error(stateMachineEnum.name(), throwable);
+        }
+    }
+
+    private static final class Service {
+        private final ServiceDescriptor descriptor;
+        private final Invoker[] invokers;
+
+        Service(ServiceDescriptor descriptor, Invoker[] invokers) {
+            this.descriptor = descriptor;
+            this.invokers = invokers;
+        }
+
+        Invoker getInvoker(int methodId) {
+            return methodId >= 0 && methodId < invokers.length ? invokers[methodId] : null;
+        }
+    }
+
+    private static final class Invoker {
+        private final MethodDescriptor method;
+        /**
+         * 类型为 (Object[])Object 的调用句柄
+         */
+        private final MethodHandle handle;
+
+        Invoker(MethodDescriptor method, MethodHandle handle) {
+            this.method = method;
+            this.handle = handle;
+        }
+    }
+}
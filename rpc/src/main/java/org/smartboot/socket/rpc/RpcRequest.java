@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: RpcRequest.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc;
+
+import org.smartboot.socket.transport.EncodeBuffer;
+
+/**
+ * RPC 请求报文:请求编号、服务编号、接口签名摘要、方法编号及入参
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+final class RpcRequest implements RpcMessage {
+    private final int requestId;
+    private final MethodDescriptor method;
+    private final Object[] args;
+
+    RpcRequest(int requestId, MethodDescriptor method, Object[] args) {
+        this.requestId = requestId;
+        this.method = method;
+        this.args = args;
+    }
+
+    @Override
+    public void encode(EncodeBuffer buffer) {
+        buffer.writeInt(requestId);
+        buffer.writeInt(method.getService().getServiceId());
+        buffer.writeInt(method.getService().getSignatureHash());
+        buffer.writeVarInt(method.getMethodId());
+        method.writeParameters(args, buffer);
+    }
+}
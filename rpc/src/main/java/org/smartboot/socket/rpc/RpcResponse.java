@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: RpcResponse.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc;
+
+import org.smartboot.socket.rpc.serializer.Serializer;
+import org.smartboot.socket.rpc.serializer.Serializers;
+import org.smartboot.socket.transport.EncodeBuffer;
+
+/**
+ * RPC 响应报文
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+final class RpcResponse implements RpcMessage {
+    static final Serializer<String> EXCEPTION_SERIALIZER = Serializers.of(String.class);
+    private final int requestId;
+    private final MethodDescriptor method;
+    private final Object returnValue;
+    /**
+     * 异常信息,调用成功时为 null
+     */
+    private final String exception;
+
+    private RpcResponse(int requestId, MethodDescriptor method, Object returnValue, String exception) {
+        this.requestId = requestId;
+        this.method = method;
+        this.returnValue = returnValue;
+        this.exception = exception;
+    }
+
+    static RpcResponse success(int requestId, MethodDescriptor method, Object returnValue) {
+        return new RpcResponse(requestId, method, returnValue, null);
+    }
+
+    static RpcResponse failure(int requestId, String exception) {
+        return new RpcResponse(requestId, null, null, exception == null ? "" : exception);
+    }
+
+    int getRequestId() {
+        return requestId;
+    }
+
+    @Override
+    public void encode(EncodeBuffer buffer) {
+        buffer.writeInt(requestId);
+        if (exception != null) {
+            buffer.writeByte(STATUS_EXCEPTION);
+            EXCEPTION_SERIALIZER.write(exception, buffer);
+        } else {
+            buffer.writeByte(STATUS_OK);
+            method.writeReturnValue(returnValue, buffer);
+        }
+    }
+}
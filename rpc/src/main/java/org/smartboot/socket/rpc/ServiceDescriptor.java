@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: ServiceDescriptor.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 服务接口的方法表。
+ * <p>
+ * 服务编号取接口全限定名的哈希值,方法编号为方法按"方法名+入参类型"排序后的下标,
+ * 通信双方基于同一接口定义即可得到一致的编号,请求报文中以编号替代接口名、方法名及入参类型名。
+ * 签名摘要覆盖全部方法的方法名、入参及返回值类型,随请求一并发送,服务端据此拒绝接口定义不一致的调用。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+final class ServiceDescriptor {
+    private static final Map<Class<?>, ServiceDescriptor> DESCRIPTORS = new ConcurrentHashMap<>();
+    private final Class<?> serviceInterface;
+    private final int serviceId;
+    /**
+     * 接口签名摘要,接口方法有任何增减或类型变化时随之改变
+     */
+    private final int signatureHash;
+    private final MethodDescriptor[] methods;
+    private final Map<Method, MethodDescriptor> methodMap;
+
+    private ServiceDescriptor(Class<?> serviceInterface) {
+        if (!serviceInterface.isInterface()) {
+            throw new IllegalArgumentException(serviceInterface.getName() + " is not an interface");
+        }
+        this.serviceInterface = serviceInterface;
+        this.serviceId = serviceInterface.getName().hashCode();
+        List<Method> list = new ArrayList<>();
+        for (Method method : serviceInterface.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers())) {
+                list.add(method);
+            }
+        }
+        list.sort(Comparator.comparing(ServiceDescriptor::signature));
+        this.methods = new MethodDescriptor[list.size()];
+        Map<Method, MethodDescriptor> map = new HashMap<>();
+        int hash = serviceId;
+        for (int i = 0; i < methods.length; i++) {
+            Method method = list.get(i);
+            methods[i] = new MethodDescriptor(this, method, i);
+            map.put(method, methods[i]);
+            hash = 31 * hash + genericSignature(method).hashCode();
+        }
+        this.signatureHash = hash;
+        this.methodMap = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * 获取接口的方法表,首次获取时生成
+     */
+    static ServiceDescriptor of(Class<?> serviceInterface) {
+        return DESCRIPTORS.computeIfAbsent(serviceInterface, ServiceDescriptor::new);
+    }
+
+    private static String signature(Method method) {
+        StringBuilder sb = new StringBuilder(method.getName()).append('(');
+        for (Class<?> type : method.getParameterTypes()) {
+            sb.append(type.getName()).append(',');
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * 包含泛型信息的完整签名,序列化器依赖于泛型参数,故摘要以此计算
+     */
+    private static String genericSignature(Method method) {
+        StringBuilder sb = new StringBuilder(method.getGenericReturnType().getTypeName()).append(' ').append(method.getName()).append('(');
+        for (Type type : method.getGenericParameterTypes()) {
+            sb.append(type.getTypeName()).append(',');
+        }
+        return sb.append(')').toString();
+    }
+
+    Class<?> getServiceInterface() {
+        return serviceInterface;
+    }
+
+    int getServiceId() {
+        return serviceId;
+    }
+
+    int getSignatureHash() {
+        return signatureHash;
+    }
+
+    /**
+     * @param methodId 方法编号
+     * @return 方法描述, 编号非法时返回 null
+     */
+    MethodDescriptor getMethod(int methodId) {
+        return methodId >= 0 && methodId < methods.length ? methods[methodId] : null;
+    }
+
+    MethodDescriptor getMethod(Method method) {
+        return methodMap.get(method);
+    }
+
+    MethodDescriptor[] getMethods() {
+        return Arrays.copyOf(methods, methods.length);
+    }
+}
@@ -0,0 +1,25 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BenchmarkApi.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc.benchmark;
+
+/**
+ * 性能测试的服务接口,覆盖基础类型、字符串及对象三类调用
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+public interface BenchmarkApi {
+
+    int sum(int a, int b);
+
+    String echo(String message);
+
+    Order placeOrder(Order order);
+}
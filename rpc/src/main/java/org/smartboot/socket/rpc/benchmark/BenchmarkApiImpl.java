@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BenchmarkApiImpl.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc.benchmark;
+
+/**
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+public class BenchmarkApiImpl implements BenchmarkApi {
+    @Override
+    public int sum(int a, int b) {
+        return a + b;
+    }
+
+    @Override
+    public String echo(String message) {
+        return message;
+    }
+
+    @Override
+    public Order placeOrder(Order order) {
+        order.setStatus(Order.Status.ACCEPTED);
+        return order;
+    }
+}
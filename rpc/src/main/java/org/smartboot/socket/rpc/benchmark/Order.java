@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: Order.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc.benchmark;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 性能测试的业务对象,同时满足 Java 序列化与 {@link org.smartboot.socket.rpc.serializer.Serializers} 的要求
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+public class Order implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private long id;
+    private String customer;
+    private int quantity;
+    private double price;
+    private List<String> items;
+    private Status status;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(String customer) {
+        this.customer = customer;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public List<String> getItems() {
+        return items;
+    }
+
+    public void setItems(List<String> items) {
+        this.items = items;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public enum Status {
+        CREATED, ACCEPTED
+    }
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: RpcBenchmark.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc.benchmark;
+
+import org.smartboot.socket.extension.protocol.LengthFieldFrameProtocol;
+import org.smartboot.socket.rpc.RpcConsumer;
+import org.smartboot.socket.rpc.RpcProvider;
+import org.smartboot.socket.rpc.benchmark.jdk.RpcConsumerProcessor;
+import org.smartboot.socket.rpc.benchmark.jdk.RpcProtocol;
+import org.smartboot.socket.rpc.benchmark.jdk.RpcProviderProcessor;
+import org.smartboot.socket.transport.AioQuickClient;
+import org.smartboot.socket.transport.AioQuickServer;
+
+import java.net.StandardSocketOptions;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RPC 吞吐量测试,在本机回环网络下对比 Java 序列化的实现与基于类型结构的二进制序列化实现。
+ * <p>
+ * 每轮调用依次执行 sum、echo、placeOrder,各实现均先预热再计时。
+ * -Dthreads=并发调用线程数 -Dseconds=计时时长(秒) -Dport=起始端口
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+public class RpcBenchmark {
+    private static final int MAX_FRAME_LENGTH = 1024 * 1024;
+    /**
+     * Java 序列化的实现要求整条消息完整位于读缓冲区,两种实现统一采用该容量,客户端统一关闭 Nagle 算法
+     */
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.parseInt(System.getProperty("threads", "16"));
+        int seconds = Integer.parseInt(System.getProperty("seconds", "10"));
+        int port = Integer.parseInt(System.getProperty("port", "8095"));
+
+        double jdk = runJdk(port, threads, seconds);
+        double binary = runBinary(port + 1, threads, seconds);
+        System.out.printf("%-8s %12.0f calls/s%n", "jdk", jdk);
+        System.out.printf("%-8s %12.0f calls/s%n", "binary", binary);
+        System.out.printf("speedup  %12.2fx%n", binary / jdk);
+        System.exit(0);
+    }
+
+    private static double runJdk(int port, int threads, int seconds) throws Exception {
+        RpcProviderProcessor providerProcessor = new RpcProviderProcessor();
+        providerProcessor.publishService(BenchmarkApi.class, new BenchmarkApiImpl());
+        AioQuickServer server = new AioQuickServer(port, new RpcProtocol(), providerProcessor);
+        server.setBannerEnabled(false).setReadBufferSize(READ_BUFFER_SIZE);
+        server.start();
+
+        RpcConsumerProcessor consumerProcessor = new RpcConsumerProcessor();
+        AioQuickClient client = new AioQuickClient("127.0.0.1", port, new RpcProtocol(), consumerProcessor);
+        client.setReadBufferSize(READ_BUFFER_SIZE).setOption(StandardSocketOptions.TCP_NODELAY, true);
+        client.start();
+        try {
+            return run("jdk", consumerProcessor.getObject(BenchmarkApi.class), threads, seconds);
+        } finally {
+            client.shutdownNow();
+            server.shutdown();
+        }
+    }
+
+    private static double runBinary(int port, int threads, int seconds) throws Exception {
+        RpcProvider provider = new RpcProvider();
+        provider.publishService(BenchmarkApi.class, new BenchmarkApiImpl());
+        AioQuickServer server = new AioQuickServer(port, new LengthFieldFrameProtocol(MAX_FRAME_LENGTH, 0, 4, 0, 4), provider);
+        server.setBannerEnabled(false).setReadBufferSize(READ_BUFFER_SIZE);
+        server.start();
+
+        RpcConsumer consumer = new RpcConsumer();
+        AioQuickClient client = new AioQuickClient("127.0.0.1", port, new LengthFieldFrameProtocol(MAX_FRAME_LENGTH, 0, 4, 0, 4), consumer);
+        client.setReadBufferSize(READ_BUFFER_SIZE).setOption(StandardSocketOptions.TCP_NODELAY, true);
+        client.start();
+        try {
+            return run("binary", consumer.getObject(BenchmarkApi.class), threads, seconds);
+        } finally {
+            client.shutdownNow();
+            server.shutdown();
+            provider.shutdown();
+        }
+    }
+
+    private static double run(String name, BenchmarkApi api, int threads, int seconds) throws InterruptedException {
+        Order template = new Order();
+        template.setId(1234567890L);
+        template.setCustomer("smart-socket");
+        template.setQuantity(3);
+        template.setPrice(99.5);
+        template.setItems(Arrays.asList("aio", "pro", "rpc"));
+        template.setStatus(Order.Status.CREATED);
+
+        //预热阶段不计入统计
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(1, seconds / 5));
+        while (System.nanoTime() < warmupEnd) {
+            call(api, template, 0);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder calls = new LongAdder();
+        CountDownLatch latch = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            int seed = i;
+            new Thread(() -> {
+                int round = seed;
+                while (running.get()) {
+                    call(api, template, round++);
+                    calls.add(3);
+                }
+                latch.countDown();
+            }, name + "-" + i).start();
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        running.set(false);
+        latch.await();
+        return calls.sum() * 1e9 / (System.nanoTime() - start);
+    }
+
+    private static void call(BenchmarkApi api, Order template, int round) {
+        if (api.sum(round, 1) != round + 1) {
+            throw new IllegalStateException("sum");
+        }
+        String message = "hello smart-socket " + (round & 0xFF);
+        if (!message.equals(api.echo(message))) {
+            throw new IllegalStateException("echo");
+        }
+        Order order = api.placeOrder(template);
+        if (order.getStatus() != Order.Status.ACCEPTED || order.getId() != template.getId() || !template.getItems().equals(order.getItems())) {
+            throw new IllegalStateException("placeOrder");
+        }
+    }
+}
@@ -7,10 +7,8 @@
  *
  ******************************************************************************/
 
-package org.smartboot.socket.example.rpc.rpc;
+package org.smartboot.socket.rpc.benchmark.jdk;
 
-import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.smartboot.socket.MessageProcessor;
@@ -39,7 +37,7 @@ import java.util.concurrent.TimeUnit;
 public class RpcConsumerProcessor implements MessageProcessor<byte[]> {
     private static final Logger LOGGER = LoggerFactory.getLogger(RpcConsumerProcessor.class);
     private Map<String, CompletableFuture<RpcResponse>> synchRespMap = new ConcurrentHashMap<>();
-    private Map<Class, Object> objectMap = new ConcurrentHashMap<>();
+    private Map<Class<?>, Object> objectMap = new ConcurrentHashMap<>();
     private AioSession aioSession;
 
     public static void main(String[] args) {
@@ -88,15 +86,15 @@ public class RpcConsumerProcessor implements MessageProcessor<byte[]> {
     public <T> T getObject(final Class<T> remoteInterface) {
         Object obj = objectMap.get(remoteInterface);
         if (obj != null) {
-            return (T) obj;
+            return remoteInterface.cast(obj);
         }
-        obj = (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{remoteInterface},
+        obj = Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{remoteInterface},
                 (proxy, method, args) -> {
                     RpcRequest req = new RpcRequest();
                     req.setInterfaceClass(remoteInterface.getName());
                     req.setMethod(method.getName());
                     Class<?>[] types = method.getParameterTypes();
-                    if (!ArrayUtils.isEmpty(types)) {
+                    if (types.length > 0) {
                         String[] paramClass = new String[types.length];
                         for (int i = 0; i < types.length; i++) {
                             paramClass[i] = types[i].getName();
@@ -106,13 +104,13 @@ public class RpcConsumerProcessor implements MessageProcessor<byte[]> {
                     req.setParams(args);
 
                     RpcResponse rmiResp = sendRpcRequest(req);
-                    if (StringUtils.isNotBlank(rmiResp.getException())) {
+                    if (rmiResp.getException() != null && !rmiResp.getException().trim().isEmpty()) {
                         throw new RuntimeException(rmiResp.getException());
                     }
                     return rmiResp.getReturnObject();
                 });
         objectMap.put(remoteInterface, obj);
-        return (T) obj;
+        return remoteInterface.cast(obj);
     }
 
     private final RpcResponse sendRpcRequest(RpcRequest request) throws Exception {
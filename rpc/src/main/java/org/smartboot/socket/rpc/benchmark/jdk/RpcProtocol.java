@@ -7,7 +7,7 @@
  *
  ******************************************************************************/
 
-package org.smartboot.socket.example.rpc.rpc;
+package org.smartboot.socket.rpc.benchmark.jdk;
 
 import org.smartboot.socket.Protocol;
 import org.smartboot.socket.transport.AioSession;
@@ -7,7 +7,7 @@
  *
  ******************************************************************************/
 
-package org.smartboot.socket.example.rpc.rpc;
+package org.smartboot.socket.rpc.benchmark.jdk;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,7 +64,7 @@ public class RpcProviderProcessor implements MessageProcessor<byte[]> {
                     // 获取入参类型
                     Class<?>[] classArray = null;
                     if (paramClassList != null) {
-                        classArray = new Class[paramClassList.length];
+                        classArray = new Class<?>[paramClassList.length];
                         for (int i = 0; i < classArray.length; i++) {
                             Class<?> clazz = primitiveClass.get(paramClassList[i]);
                             if (clazz == null) {
@@ -7,7 +7,7 @@
  *
  ******************************************************************************/
 
-package org.smartboot.socket.example.rpc.rpc;
+package org.smartboot.socket.rpc.benchmark.jdk;
 
 
 import java.io.Serializable;
@@ -20,6 +20,7 @@ import java.util.UUID;
  * @version RpcRequest.java, v 0.1 2015年11月20日 下午9:10:02 Seer Exp.
  */
 public class RpcRequest implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     /**
      * 消息的唯一标识
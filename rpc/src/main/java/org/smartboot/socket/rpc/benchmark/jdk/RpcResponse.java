@@ -7,7 +7,7 @@
  *
  ******************************************************************************/
 
-package org.smartboot.socket.example.rpc.rpc;
+package org.smartboot.socket.rpc.benchmark.jdk;
 
 import java.io.Serializable;
 
@@ -18,6 +18,7 @@ import java.io.Serializable;
  * @version RpcResponse.java, v 0.1 2015年11月20日 下午9:11:03 Seer Exp.
  */
 public class RpcResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
     /**
      * 消息的唯一标示，与对应的RpcRequest uuid值相同
      */
@@ -7,11 +7,10 @@
  *
  ******************************************************************************/
 
-package org.smartboot.socket.example.rpc;
+package org.smartboot.socket.rpc.demo;
 
-import org.smartboot.socket.example.rpc.api.DemoApi;
-import org.smartboot.socket.example.rpc.rpc.RpcConsumerProcessor;
-import org.smartboot.socket.example.rpc.rpc.RpcProtocol;
+import org.smartboot.socket.extension.protocol.LengthFieldFrameProtocol;
+import org.smartboot.socket.rpc.RpcConsumer;
 import org.smartboot.socket.transport.AioQuickClient;
 
 import java.io.IOException;
@@ -27,11 +26,11 @@ public class Consumer {
 
     public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
 
-        RpcConsumerProcessor rpcConsumerProcessor = new RpcConsumerProcessor();
-        AioQuickClient consumer = new AioQuickClient("localhost", 8888, new RpcProtocol(), rpcConsumerProcessor);
+        RpcConsumer rpcConsumer = new RpcConsumer();
+        AioQuickClient consumer = new AioQuickClient("localhost", 8888, new LengthFieldFrameProtocol(1024 * 1024, 0, 4, 0, 4), rpcConsumer);
         consumer.start();
 
-        DemoApi demoApi = rpcConsumerProcessor.getObject(DemoApi.class);
+        DemoApi demoApi = rpcConsumer.getObject(DemoApi.class);
         ExecutorService pool= Executors.newCachedThreadPool();
         pool.execute(()->{
             System.out.println(demoApi.test("smart-socket"));
@@ -7,7 +7,7 @@
  *
  ******************************************************************************/
 
-package org.smartboot.socket.example.rpc.api;
+package org.smartboot.socket.rpc.demo;
 
 /**
  * @author 三刀
@@ -7,12 +7,10 @@
  *
  ******************************************************************************/
 
-package org.smartboot.socket.example.rpc;
+package org.smartboot.socket.rpc.demo;
 
-import org.smartboot.socket.example.rpc.api.DemoApi;
-import org.smartboot.socket.example.rpc.api.DemoApiImpl;
-import org.smartboot.socket.example.rpc.rpc.RpcProtocol;
-import org.smartboot.socket.example.rpc.rpc.RpcProviderProcessor;
+import org.smartboot.socket.extension.protocol.LengthFieldFrameProtocol;
+import org.smartboot.socket.rpc.RpcProvider;
 import org.smartboot.socket.transport.AioQuickServer;
 
 import java.io.IOException;
@@ -23,10 +21,10 @@ import java.io.IOException;
  */
 public class Provider {
     public static void main(String[] args) throws IOException {
-        RpcProviderProcessor rpcProviderProcessor = new RpcProviderProcessor();
-        AioQuickServer server = new AioQuickServer(8888, new RpcProtocol(), rpcProviderProcessor);
+        RpcProvider rpcProvider = new RpcProvider();
+        AioQuickServer server = new AioQuickServer(8888, new LengthFieldFrameProtocol(1024 * 1024, 0, 4, 0, 4), rpcProvider);
         server.start();
 
-        rpcProviderProcessor.publishService(DemoApi.class, new DemoApiImpl());
+        rpcProvider.publishService(DemoApi.class, new DemoApiImpl());
     }
 }
@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: BeanSerializer.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc.serializer;
+
+import org.smartboot.socket.transport.EncodeBuffer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 普通对象的序列化器,按字段结构依次编码,报文中不携带字段名。
+ * <p>
+ * 参与编码的字段为类及其父类中所有非 static、非 transient 的字段,按字段名排序以保证通信双方的顺序一致。
+ * 字段通过预先生成的 MethodHandle 读写,int/long/boolean/double 类型的字段不经过装箱。
+ * 对象需提供无参构造方法,且通信双方的类定义需保持一致。
+ * </p>
+ *
+ * @param <T> 对象类型
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+final class BeanSerializer<T> implements Serializer<T> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private final Class<T> type;
+    private MethodHandle constructor;
+    private FieldCodec[] fields;
+
+    BeanSerializer(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * 解析字段结构,字段类型的序列化器可能反向依赖当前实例,故与构造分离
+     */
+    void init() {
+        try {
+            Constructor<T> noArgConstructor = type.getDeclaredConstructor();
+            noArgConstructor.setAccessible(true);
+            constructor = LOOKUP.unreflectConstructor(noArgConstructor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("unsupported type: " + type.getName() + ", a no-arg constructor is required", e);
+        }
+        List<Field> list = new ArrayList<>();
+        for (Class<?> clazz = type; clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                    list.add(field);
+                }
+            }
+        }
+        list.sort(Comparator.comparing(Field::getName).thenComparing(field -> field.getDeclaringClass().getName()));
+        FieldCodec[] codecs = new FieldCodec[list.size()];
+        for (int i = 0; i < codecs.length; i++) {
+            codecs[i] = newFieldCodec(list.get(i));
+        }
+        fields = codecs;
+    }
+
+    private static FieldCodec newFieldCodec(Field field) {
+        MethodHandle getter;
+        MethodHandle setter;
+        try {
+            field.setAccessible(true);
+            getter = LOOKUP.unreflectGetter(field);
+            setter = LOOKUP.unreflectSetter(field);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("unsupported field: " + field + ", it must be accessible and non-final", e);
+        }
+        Class<?> fieldType = field.getType();
+        if (fieldType == int.class) {
+            return new IntFieldCodec(getter.asType(MethodType.methodType(int.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, int.class)));
+        }
+        if (fieldType == long.class) {
+            return new LongFieldCodec(getter.asType(MethodType.methodType(long.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, long.class)));
+        }
+        if (fieldType == boolean.class) {
+            return new BooleanFieldCodec(getter.asType(MethodType.methodType(boolean.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, boolean.class)));
+        }
+        if (fieldType == double.class) {
+            return new DoubleFieldCodec(getter.asType(MethodType.methodType(double.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, double.class)));
+        }
+        Serializer<Object> serializer;
+        try {
+            serializer = Serializers.of(field.getGenericType());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unsupported field: " + field, e);
+        }
+        return new ObjectFieldCodec(getter.asType(MethodType.methodType(Object.class, Object.class)), setter.asType(MethodType.methodType(void.class, Object.class, Object.class)), serializer);
+    }
+
+    @Override
+    public void write(T value, EncodeBuffer buffer) {
+        try {
+            for (FieldCodec field : fields) {
+                field.write(value, buffer);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read(ByteBuffer buffer) {
+        try {
+            T value = (T) (Object) constructor.invokeExact();
+            for (FieldCodec field : fields) {
+                field.read(value, buffer);
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private interface FieldCodec {
+        void write(Object bean, EncodeBuffer buffer) throws Throwable;
+
+        void read(Object bean, ByteBuffer buffer) throws Throwable;
+    }
+
+    private static final class IntFieldCodec implements FieldCodec {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        IntFieldCodec(MethodHandle getter, MethodHandle setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void write(Object bean, EncodeBuffer buffer) throws Throwable {
+            buffer.writeSignedVarInt((int) getter.invokeExact(bean));
+        }
+
+        @Override
+        public void read(Object bean, ByteBuffer buffer) throws Throwable {
+            setter.invokeExact(bean, Serializers.readSignedVarInt(buffer));
+        }
+    }
+
+    private static final class LongFieldCodec implements FieldCodec {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        LongFieldCodec(MethodHandle getter, MethodHandle setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void write(Object bean, EncodeBuffer buffer) throws Throwable {
+            buffer.writeSignedVarLong((long) getter.invokeExact(bean));
+        }
+
+        @Override
+        public void read(Object bean, ByteBuffer buffer) throws Throwable {
+            setter.invokeExact(bean, Serializers.readSignedVarLong(buffer));
+        }
+    }
+
+    private static final class BooleanFieldCodec implements FieldCodec {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        BooleanFieldCodec(MethodHandle getter, MethodHandle setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void write(Object bean, EncodeBuffer buffer) throws Throwable {
+            buffer.writeByte((boolean) getter.invokeExact(bean) ? 1 : 0);
+        }
+
+        @Override
+        public void read(Object bean, ByteBuffer buffer) throws Throwable {
+            setter.invokeExact(bean, buffer.get() != 0);
+        }
+    }
+
+    private static final class DoubleFieldCodec implements FieldCodec {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        DoubleFieldCodec(MethodHandle getter, MethodHandle setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void write(Object bean, EncodeBuffer buffer) throws Throwable {
+            buffer.writeLong(Double.doubleToRawLongBits((double) getter.invokeExact(bean)));
+        }
+
+        @Override
+        public void read(Object bean, ByteBuffer buffer) throws Throwable {
+            setter.invokeExact(bean, buffer.getDouble());
+        }
+    }
+
+    private static final class ObjectFieldCodec implements FieldCodec {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final Serializer<Object> serializer;
+
+        ObjectFieldCodec(MethodHandle getter, MethodHandle setter, Serializer<Object> serializer) {
+            this.getter = getter;
+            this.setter = setter;
+            this.serializer = serializer;
+        }
+
+        @Override
+        public void write(Object bean, EncodeBuffer buffer) throws Throwable {
+            serializer.write((Object) getter.invokeExact(bean), buffer);
+        }
+
+        @Override
+        public void read(Object bean, ByteBuffer buffer) throws Throwable {
+            setter.invokeExact(bean, serializer.read(buffer));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: Serializer.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc.serializer;
+
+import org.smartboot.socket.transport.EncodeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 基于类型结构的二进制序列化器,通信双方按相同的类型定义读写数据,报文中不携带类名、字段名等描述信息
+ *
+ * @param <T> 序列化的数据类型
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+public interface Serializer<T> {
+
+    /**
+     * 将对象直接写入编码缓冲区
+     *
+     * @param value  待序列化的对象
+     * @param buffer 编码缓冲区
+     */
+    void write(T value, EncodeBuffer buffer);
+
+    /**
+     * 从缓冲区的当前位置读取对象
+     *
+     * @param buffer 数据缓冲区
+     * @return 反序列化的对象
+     */
+    T read(ByteBuffer buffer);
+}
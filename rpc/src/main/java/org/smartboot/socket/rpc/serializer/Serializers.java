@@ -0,0 +1,486 @@
+/*******************************************************************************
+ * Copyright (c) 2017-2022, org.smartboot. All rights reserved.
+ * project name: smart-socket
+ * file name: Serializers.java
+ * Date: 2022-11-07
+ * Author: sandao (zhengjunweimail@163.com)
+ *
+ ******************************************************************************/
+
+package org.smartboot.socket.rpc.serializer;
+
+import org.smartboot.socket.transport.EncodeBuffer;
+import org.smartboot.socket.util.DecoderException;
+import org.smartboot.socket.util.StringCodec;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 序列化器的注册表,按类型生成并缓存对应的 {@link Serializer}。
+ * <p>
+ * 支持的类型:
+ * <ul>
+ *     <li>基础数据类型及其包装类,int/long 采用 zigzag + varint 编码</li>
+ *     <li>String、byte[]、枚举(按序号编码)</li>
+ *     <li>数组、声明了元素类型的 List/Collection 以及声明了键值类型的 Map</li>
+ *     <li>包含无参构造方法的普通对象,由 {@link BeanSerializer} 按字段结构编码</li>
+ * </ul>
+ * 引用类型均以1字节的标志位区分 null。序列化按声明的类型进行,不支持多态,Object、接口及抽象类在生成时即抛出异常。
+ * </p>
+ *
+ * @author 三刀
+ * @version V1.0 , 2022/11/7
+ */
+public final class Serializers {
+    private static final StringCodec STRING_CODEC = new StringCodec(StandardCharsets.UTF_8, 1024, 32);
+    private static final Map<Type, Serializer<?>> SERIALIZERS = new ConcurrentHashMap<>();
+    /**
+     * 生成中的序列化器,待最外层类型生成完毕后统一发布,使自引用的类型可以获取到自身的序列化器
+     */
+    private static final Map<Type, Serializer<?>> BUILDING = new HashMap<>();
+
+    static {
+        SERIALIZERS.put(int.class, new Serializer<Integer>() {
+            @Override
+            public void write(Integer value, EncodeBuffer buffer) {
+                buffer.writeSignedVarInt(value);
+            }
+
+            @Override
+            public Integer read(ByteBuffer buffer) {
+                return readSignedVarInt(buffer);
+            }
+        });
+        SERIALIZERS.put(long.class, new Serializer<Long>() {
+            @Override
+            public void write(Long value, EncodeBuffer buffer) {
+                buffer.writeSignedVarLong(value);
+            }
+
+            @Override
+            public Long read(ByteBuffer buffer) {
+                return readSignedVarLong(buffer);
+            }
+        });
+        SERIALIZERS.put(short.class, new Serializer<Short>() {
+            @Override
+            public void write(Short value, EncodeBuffer buffer) {
+                buffer.writeShort(value);
+            }
+
+            @Override
+            public Short read(ByteBuffer buffer) {
+                return buffer.getShort();
+            }
+        });
+        SERIALIZERS.put(byte.class, new Serializer<Byte>() {
+            @Override
+            public void write(Byte value, EncodeBuffer buffer) {
+                buffer.writeByte(value);
+            }
+
+            @Override
+            public Byte read(ByteBuffer buffer) {
+                return buffer.get();
+            }
+        });
+        SERIALIZERS.put(boolean.class, new Serializer<Boolean>() {
+            @Override
+            public void write(Boolean value, EncodeBuffer buffer) {
+                buffer.writeByte(value ? 1 : 0);
+            }
+
+            @Override
+            public Boolean read(ByteBuffer buffer) {
+                return buffer.get() != 0;
+            }
+        });
+        SERIALIZERS.put(char.class, new Serializer<Character>() {
+            @Override
+            public void write(Character value, EncodeBuffer buffer) {
+                buffer.writeShort(value);
+            }
+
+            @Override
+            public Character read(ByteBuffer buffer) {
+                return buffer.getChar();
+            }
+        });
+        SERIALIZERS.put(float.class, new Serializer<Float>() {
+            @Override
+            public void write(Float value, EncodeBuffer buffer) {
+                buffer.writeInt(Float.floatToRawIntBits(value));
+            }
+
+            @Override
+            public Float read(ByteBuffer buffer) {
+                return buffer.getFloat();
+            }
+        });
+        SERIALIZERS.put(double.class, new Serializer<Double>() {
+            @Override
+            public void write(Double value, EncodeBuffer buffer) {
+                buffer.writeLong(Double.doubleToRawLongBits(value));
+            }
+
+            @Override
+            public Double read(ByteBuffer buffer) {
+                return buffer.getDouble();
+            }
+        });
+        //字符串以 varint 编码的字节数开头,0 表示 null
+        SERIALIZERS.put(String.class, new Serializer<String>() {
+            @Override
+            public void write(String value, EncodeBuffer buffer) {
+                if (value == null) {
+                    buffer.writeByte(0);
+                    return;
+                }
+                buffer.writeVarInt(utf8Length(value) + 1);
+                buffer.writeString(value, StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String read(ByteBuffer buffer) {
+                int length = readVarInt(buffer);
+                return length == 0 ? null : STRING_CODEC.decode(buffer, length - 1);
+            }
+        });
+        SERIALIZERS.put(byte[].class, new Serializer<byte[]>() {
+            @Override
+            public void write(byte[] value, EncodeBuffer buffer) {
+                if (value == null) {
+                    buffer.writeByte(0);
+                    return;
+                }
+                buffer.writeVarInt(value.length + 1);
+                buffer.write(value);
+            }
+
+            @Override
+            public byte[] read(ByteBuffer buffer) {
+                int length = readVarInt(buffer);
+                if (length == 0) {
+                    return null;
+                }
+                byte[] value = new byte[checkLength(buffer, length - 1)];
+                buffer.get(value);
+                return value;
+            }
+        });
+        SERIALIZERS.put(Integer.class, nullable(SERIALIZERS.get(int.class)));
+        SERIALIZERS.put(Long.class, nullable(SERIALIZERS.get(long.class)));
+        SERIALIZERS.put(Short.class, nullable(SERIALIZERS.get(short.class)));
+        SERIALIZERS.put(Byte.class, nullable(SERIALIZERS.get(byte.class)));
+        SERIALIZERS.put(Boolean.class, nullable(SERIALIZERS.get(boolean.class)));
+        SERIALIZERS.put(Character.class, nullable(SERIALIZERS.get(char.class)));
+        SERIALIZERS.put(Float.class, nullable(SERIALIZERS.get(float.class)));
+        SERIALIZERS.put(Double.class, nullable(SERIALIZERS.get(double.class)));
+    }
+
+    private Serializers() {
+    }
+
+    /**
+     * 获取指定类型的序列化器,首次获取时生成并缓存
+     *
+     * @param type 数据类型,可以是 Class 或声明了泛型参数的 ParameterizedType
+     * @return 序列化器
+     * @throws IllegalArgumentException 类型不支持序列化
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Serializer<T> of(Type type) {
+        Serializer<?> serializer = SERIALIZERS.get(type);
+        if (serializer != null) {
+            return (Serializer<T>) serializer;
+        }
+        synchronized (BUILDING) {
+            serializer = SERIALIZERS.get(type);
+            if (serializer != null) {
+                return (Serializer<T>) serializer;
+            }
+            serializer = BUILDING.get(type);
+            if (serializer != null) {
+                return (Serializer<T>) serializer;
+            }
+            boolean outermost = BUILDING.isEmpty();
+            try {
+                serializer = build(type);
+                if (outermost) {
+                    SERIALIZERS.putAll(BUILDING);
+                    SERIALIZERS.put(type, serializer);
+                } else {
+                    BUILDING.put(type, serializer);
+                }
+            } finally {
+                if (outermost) {
+                    BUILDING.clear();
+                }
+            }
+            return (Serializer<T>) serializer;
+        }
+    }
+
+    /**
+     * 注册自定义的序列化器,需在首次使用该类型前完成注册
+     */
+    public static <T> void register(Class<T> type, Serializer<T> serializer) {
+        SERIALIZERS.put(type, serializer);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Serializer<?> build(Type type) {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+            Type[] arguments = parameterizedType.getActualTypeArguments();
+            if (rawType == List.class || rawType == Collection.class || rawType == ArrayList.class) {
+                return nullable(new CollectionSerializer(of(arguments[0])));
+            }
+            if (rawType == Map.class || rawType == HashMap.class || rawType == LinkedHashMap.class) {
+                return nullable(new MapSerializer(of(arguments[0]), of(arguments[1])));
+            }
+            throw new IllegalArgumentException("unsupported type: " + type);
+        }
+        if (type instanceof GenericArrayType) {
+            Type componentType = ((GenericArrayType) type).getGenericComponentType();
+            Class<?> rawComponent = componentType instanceof ParameterizedType ? (Class<?>) ((ParameterizedType) componentType).getRawType() : Object.class;
+            return nullable(new ArraySerializer(rawComponent, of(componentType)));
+        }
+        if (!(type instanceof Class)) {
+            throw new IllegalArgumentException("unsupported type: " + type);
+        }
+        Class<?> clazz = (Class<?>) type;
+        if (clazz.isArray()) {
+            return nullable(new ArraySerializer(clazz.getComponentType(), of(clazz.getComponentType())));
+        }
+        if (clazz.isEnum()) {
+            return nullable(new EnumSerializer(clazz));
+        }
+        if (clazz == Object.class || clazz.isInterface() || Modifier.isAbstract(clazz.getModifiers())) {
+            throw new IllegalArgumentException("unsupported type: " + clazz.getName() + ", the declared type must be concrete");
+        }
+        //先登记再解析字段,自引用的字段可获取到该实例
+        BeanSerializer<?> beanSerializer = new BeanSerializer<>(clazz);
+        Serializer<?> serializer = nullable(beanSerializer);
+        BUILDING.put(type, serializer);
+        beanSerializer.init();
+        return serializer;
+    }
+
+    /**
+     * 为引用类型追加1字节的 null 标志位
+     */
+    private static <T> Serializer<T> nullable(Serializer<T> serializer) {
+        return new Serializer<T>() {
+            @Override
+            public void write(T value, EncodeBuffer buffer) {
+                if (value == null) {
+                    buffer.writeByte(0);
+                } else {
+                    buffer.writeByte(1);
+                    serializer.write(value, buffer);
+                }
+            }
+
+            @Override
+            public T read(ByteBuffer buffer) {
+                return buffer.get() == 0 ? null : serializer.read(buffer);
+            }
+        };
+    }
+
+    /**
+     * 读取无符号 varint 编码的int数值
+     */
+    public static int readVarInt(ByteBuffer buffer) {
+        long v = readVarLong(buffer);
+        if ((v & ~0xFFFFFFFFL) != 0) {
+            throw new DecoderException("varint overflow");
+        }
+        return (int) v;
+    }
+
+    /**
+     * 读取 zigzag + varint 编码的有符号int数值
+     */
+    public static int readSignedVarInt(ByteBuffer buffer) {
+        int v = readVarInt(buffer);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * 读取无符号 varint 编码的long数值
+     */
+    public static long readVarLong(ByteBuffer buffer) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+        throw new DecoderException("malformed varint");
+    }
+
+    /**
+     * 读取 zigzag + varint 编码的有符号long数值
+     */
+    public static long readSignedVarLong(ByteBuffer buffer) {
+        long v = readVarLong(buffer);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * 校验读取的元素个数不超过缓冲区剩余字节数,避免畸形数据触发超大内存分配
+     */
+    static int checkLength(ByteBuffer buffer, int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new DecoderException("illegal length: " + length + ", remaining: " + buffer.remaining());
+        }
+        return length;
+    }
+
+    /**
+     * 字符串 UTF-8 编码后的字节数,与 {@link EncodeBuffer#writeString(CharSequence, java.nio.charset.Charset)} 的输出一致
+     */
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int size = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                size++;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                i++;
+                size += 2;
+            } else if (!Character.isSurrogate(c)) {
+                size += 2;
+            }
+        }
+        return size;
+    }
+
+    private static final class EnumSerializer<E extends Enum<E>> implements Serializer<E> {
+        private final E[] constants;
+
+        EnumSerializer(Class<E> type) {
+            this.constants = type.getEnumConstants();
+        }
+
+        @Override
+        public void write(E value, EncodeBuffer buffer) {
+            buffer.writeVarInt(value.ordinal());
+        }
+
+        @Override
+        public E read(ByteBuffer buffer) {
+            int ordinal = readVarInt(buffer);
+            if (ordinal < 0 || ordinal >= constants.length) {
+                throw new DecoderException("illegal ordinal: " + ordinal);
+            }
+            return constants[ordinal];
+        }
+    }
+
+    private static final class ArraySerializer implements Serializer<Object> {
+        private final Class<?> componentType;
+        private final Serializer<Object> serializer;
+
+        ArraySerializer(Class<?> componentType, Serializer<Object> serializer) {
+            this.componentType = componentType;
+            this.serializer = serializer;
+        }
+
+        @Override
+        public void write(Object value, EncodeBuffer buffer) {
+            int length = Array.getLength(value);
+            buffer.writeVarInt(length);
+            for (int i = 0; i < length; i++) {
+                serializer.write(Array.get(value, i), buffer);
+            }
+        }
+
+        @Override
+        public Object read(ByteBuffer buffer) {
+            int length = checkLength(buffer, readVarInt(buffer));
+            Object value = Array.newInstance(componentType, length);
+            for (int i = 0; i < length; i++) {
+                Array.set(value, i, serializer.read(buffer));
+            }
+            return value;
+        }
+    }
+
+    private static final class CollectionSerializer implements Serializer<Collection<Object>> {
+        private final Serializer<Object> serializer;
+
+        CollectionSerializer(Serializer<Object> serializer) {
+            this.serializer = serializer;
+        }
+
+        @Override
+        public void write(Collection<Object> value, EncodeBuffer buffer) {
+            buffer.writeVarInt(value.size());
+            for (Object element : value) {
+                serializer.write(element, buffer);
+            }
+        }
+
+        @Override
+        public Collection<Object> read(ByteBuffer buffer) {
+            int size = checkLength(buffer, readVarInt(buffer));
+            List<Object> value = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                value.add(serializer.read(buffer));
+            }
+            return value;
+        }
+    }
+
+    private static final class MapSerializer implements Serializer<Map<Object, Object>> {
+        private final Serializer<Object> keySerializer;
+        private final Serializer<Object> valueSerializer;
+
+        MapSerializer(Serializer<Object> keySerializer, Serializer<Object> valueSerializer) {
+            this.keySerializer = keySerializer;
+            this.valueSerializer = valueSerializer;
+        }
+
+        @Override
+        public void write(Map<Object, Object> value, EncodeBuffer buffer) {
+            buffer.writeVarInt(value.size());
+            for (Map.Entry<Object, Object> entry : value.entrySet()) {
+                keySerializer.write(entry.getKey(), buffer);
+                valueSerializer.write(entry.getValue(), buffer);
+            }
+        }
+
+        @Override
+        public Map<Object, Object> read(ByteBuffer buffer) {
+            int size = checkLength(buffer, readVarInt(buffer));
+            Map<Object, Object> value = new LinkedHashMap<>(size << 1);
+            for (int i = 0; i < size; i++) {
+                value.put(keySerializer.read(buffer), valueSerializer.read(buffer));
+            }
+            return value;
+        }
+    }
+}